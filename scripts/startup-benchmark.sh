@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+#
+# Compares the time to first output of the SQL formatter CLI started as
+#
+#   1. plain "java -jar"
+#   2. "java -jar" with the AppCDS archive dumped by "./gradlew cdsArchive"
+#   3. the jlink runtime image with its own AppCDS archive ("./gradlew jlinkImage")
+#
+# Time to first output is measured from the launch until the first formatted line is read from stdout.
+# Build the artifacts first with "./gradlew jlinkImage", or run "./gradlew startupBenchmark".
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#
+# Environment:
+#   JAVA_HOME  JDK used for modes 1 and 2 (must be the JDK that dumped build/cds/sql-formatter.jsa)
+#   SQL        query to format (default: a short select statement)
+#
+
+set -euo pipefail
+
+PROJECT_HOME=$(cd "$(dirname "$0")/.." && pwd -P)
+CDS_HOME="$PROJECT_HOME/build/cds"
+IMAGE_HOME="$PROJECT_HOME/build/image"
+
+RUNS=${1:-20}
+SQL=${SQL:-"select u.id, u.name from users u where u.id = 42 and u.status = 'active' order by u.id;"}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+for artifact in "$CDS_HOME/sql-formatter.jar" "$CDS_HOME/sql-formatter.jsa" "$IMAGE_HOME/bin/sql-formatter"; do
+    if [ ! -e "$artifact" ]; then
+        echo "$artifact was not found. Run ./gradlew jlinkImage first." >&2
+        exit 1
+    fi
+done
+
+# Prints the milliseconds from the launch of the given command until its first line of output.
+first_output_millis() {
+    local start end fd
+
+    start=$(date +%s%N)
+    exec {fd}< <("$@" "$SQL" -1)
+    IFS= read -r -u "$fd" _
+    end=$(date +%s%N)
+
+    # drain the rest so that the next run does not overlap with this one
+    cat <&"$fd" > /dev/null
+    exec {fd}<&-
+
+    echo $(((end - start) / 1000000))
+}
+
+measure() {
+    local name=$1
+    shift
+
+    # warm the page cache so that every mode reads its files from memory
+    "$@" "$SQL" -1 > /dev/null
+
+    local samples=()
+    for ((i = 0; i < RUNS; i++)); do
+        samples+=("$(first_output_millis "$@")")
+    done
+
+    printf '%s\n' "${samples[@]}" | sort -n | awk -v name="$name" '
+        { values[NR] = $1; sum += $1 }
+        END {
+            median = NR % 2 ? values[(NR + 1) / 2] : (values[NR / 2] + values[NR / 2 + 1]) / 2
+            printf "%-16s %8d %8.1f %8.1f %8d\n", name, values[1], median, sum / NR, values[NR]
+        }'
+}
+
+printf '%-16s %8s %8s %8s %8s   (ms, %d runs)\n' "mode" "min" "median" "mean" "max" "$RUNS"
+measure "java -jar" "$JAVA" -Xshare:auto -jar "$CDS_HOME/sql-formatter.jar"
+measure "java -jar + CDS" "$JAVA" -XX:SharedArchiveFile="$CDS_HOME/sql-formatter.jsa" -Xshare:auto -jar "$CDS_HOME/sql-formatter.jar"
+measure "jlink + CDS" "$IMAGE_HOME/bin/sql-formatter"
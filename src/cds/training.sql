@@ -0,0 +1,16 @@
+select u.id, u.name, u.email, u.status from users u where u.id = 42 and u.status = 'active' order by u.id;
+select distinct salary from employee a where 3 >= (select count(distinct salary) from employee b where a.salary <= b.salary) order by a.salary desc;
+select d.name, count(*) as headcount, avg(e.salary) from department d inner join employee e on d.id = e.department_id left outer join project p on p.owner_id = e.id where e.hired_at between '2019-01-01' and '2020-12-31' or e.grade in (1, 2, 3) group by d.name having count(*) > 10 order by headcount desc;
+select case when amount > 1000 then 'large' when amount > 100 then 'medium' else 'small' end as size, id from orders where not exists (select 1 from refunds r where r.order_id = orders.id) union all select 'none', 0 from dual;
+insert into staff (id, name, department_id, note) values (1, 'O''Brien', 10, 'it''s a "quoted" value');
+insert into staff_history (id, name) select id, name from staff where retired = 1;
+update staff set name = 'Kato', department_id = (select id from department where name = 'sales') where id = 1 and retired = 0;
+delete from staff where id in (select staff_id from retirement where retired_at < '2020-01-01');
+create table staff (id int not null, name varchar(10) default 'NoData', department_id int, note varchar(200), primary key (id));
+alter table staff add c int unsigned not null auto_increment, add primary key (c);
+alter table staff drop column c, b, a;
+alter table staff add index (department_id), add unique (name);
+alter table staff modify name varchar(20) not null, change note remark char(20);
+alter table staff rename to employee;
+comment on column staff.id is 'this is description for column';
+comment on table staff is 'staff members';
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+/**
+ * ベンチマークで使用するクエリを生成するコーパスクラスです。
+ * <p>
+ * 生成されるクエリは実行毎に同一となるため、変更の前後で計測結果を比較することができます。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+public final class BenchmarkCorpus {
+
+    /**
+     * 短いOLTPのSELECT文
+     */
+    public static final String OLTP_SELECT = "oltp_select";
+
+    /**
+     * 深く入れ子になった副問い合わせ
+     */
+    public static final String NESTED_SUBQUERY = "nested_subquery";
+
+    /**
+     * 10,000要素のIN句
+     */
+    public static final String IN_LIST = "in_list";
+
+    /**
+     * 複数行のINSERT文
+     */
+    public static final String MULTI_ROW_INSERT = "multi_row_insert";
+
+    /**
+     * 1,000列のCREATE TABLE文
+     */
+    public static final String CREATE_TABLE = "create_table";
+
+    /**
+     * 多数の変更句を持つALTER TABLE文
+     */
+    public static final String ALTER_TABLE = "alter_table";
+
+    /**
+     * COMMENT ON文
+     */
+    public static final String COMMENT_ON = "comment_on";
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * 引数として渡された {@code name} に対応するクエリを生成し返却します。
+     *
+     * @param name クエリの名前
+     * @return {@code name} に対応するクエリ
+     *
+     * @throws IllegalArgumentException {@code name} に対応するクエリが存在しない場合
+     */
+    public static String get(String name) {
+        switch (name) {
+            case OLTP_SELECT:
+                return oltpSelect();
+            case NESTED_SUBQUERY:
+                return nestedSubquery(32);
+            case IN_LIST:
+                return inList(10000);
+            case MULTI_ROW_INSERT:
+                return multiRowInsert(1000, 20);
+            case CREATE_TABLE:
+                return createTable(1000);
+            case ALTER_TABLE:
+                return alterTable(200);
+            case COMMENT_ON:
+                return commentOn();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown corpus: %s", name));
+        }
+    }
+
+    /**
+     * 主キーで1行を検索する短いSELECT文を返却します。
+     *
+     * @return 短いSELECT文
+     */
+    public static String oltpSelect() {
+        return "select u.id, u.name, u.email, u.status from users u where u.id = 42 and u.status = 'active' order by u.id;";
+    }
+
+    /**
+     * 引数として渡された {@code depth} の深さまで副問い合わせが入れ子になったSELECT文を生成し返却します。
+     *
+     * @param depth 入れ子の深さ
+     * @return 入れ子になったSELECT文
+     */
+    public static String nestedSubquery(int depth) {
+
+        final StringBuilder sql = new StringBuilder();
+
+        for (int i = 0; i < depth; i++) {
+            sql.append("select t").append(i).append(".id, count(t").append(i).append(".value) from table").append(i)
+                    .append(" t").append(i).append(" where t").append(i).append(".id in (");
+        }
+
+        sql.append("select id from leaf where flag = 1");
+
+        for (int i = depth - 1; i >= 0; i--) {
+            sql.append(") group by t").append(i).append(".id");
+        }
+
+        return sql.append(';').toString();
+    }
+
+    /**
+     * 引数として渡された {@code size} 個の要素を持つIN句を含むSELECT文を生成し返却します。
+     *
+     * @param size IN句の要素数
+     * @return IN句を含むSELECT文
+     */
+    public static String inList(int size) {
+
+        final StringBuilder sql = new StringBuilder("select id, amount from orders where id in (");
+
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+
+            sql.append(i);
+        }
+
+        return sql.append(") and status = 'open';").toString();
+    }
+
+    /**
+     * 引数として渡された {@code rows} 行と {@code columns} 列の値を持つINSERT文を生成し返却します。
+     *
+     * @param rows    行数
+     * @param columns 列数
+     * @return 複数行のINSERT文
+     */
+    public static String multiRowInsert(int rows, int columns) {
+
+        final StringBuilder sql = new StringBuilder("insert into measurements (");
+
+        for (int i = 0; i < columns; i++) {
+            sql.append(i > 0 ? ", " : "").append("c").append(i);
+        }
+
+        sql.append(") values ");
+
+        for (int row = 0; row < rows; row++) {
+            sql.append(row > 0 ? ", " : "").append('(');
+
+            for (int i = 0; i < columns; i++) {
+                sql.append(i > 0 ? ", " : "");
+
+                if (i % 2 == 0) {
+                    sql.append(row * columns + i);
+                } else {
+                    sql.append("'value").append(row).append('_').append(i).append('\'');
+                }
+            }
+
+            sql.append(')');
+        }
+
+        return sql.append(';').toString();
+    }
+
+    /**
+     * 引数として渡された {@code columns} 列を持つCREATE TABLE文を生成し返却します。
+     *
+     * @param columns 列数
+     * @return CREATE TABLE文
+     */
+    public static String createTable(int columns) {
+
+        final StringBuilder sql = new StringBuilder("create table wide_table (");
+
+        for (int i = 0; i < columns; i++) {
+            sql.append(i > 0 ? ", " : "").append("column").append(i);
+
+            switch (i % 3) {
+                case 0:
+                    sql.append(" int not null");
+                    break;
+                case 1:
+                    sql.append(" varchar(255) default 'none'");
+                    break;
+                default:
+                    sql.append(" decimal(10, 2)");
+                    break;
+            }
+        }
+
+        return sql.append(", primary key (column0));").toString();
+    }
+
+    /**
+     * 引数として渡された {@code clauses} 個の変更句を持つALTER TABLE文を生成し返却します。
+     *
+     * @param clauses 変更句の数
+     * @return ALTER TABLE文
+     */
+    public static String alterTable(int clauses) {
+
+        final StringBuilder sql = new StringBuilder("ALTER TABLE wide_table ");
+
+        for (int i = 0; i < clauses; i++) {
+            sql.append(i > 0 ? ", " : "");
+
+            if (i % 2 == 0) {
+                sql.append("ADD c").append(i).append(" INT UNSIGNED NOT NULL");
+            } else {
+                sql.append("MODIFY c").append(i - 1).append(" BIGINT NOT NULL");
+            }
+        }
+
+        return sql.append(';').toString();
+    }
+
+    /**
+     * カラムへの説明を設定するCOMMENT ON文を返却します。
+     *
+     * @return COMMENT ON文
+     */
+    public static String commentOn() {
+        return "COMMENT ON COLUMN employee.employee_number IS 'the number assigned to each employee';";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thinkit.formatter.common.Formatter;
+
+/**
+ * {@link SqlFormatter#format(String)} メソッドの処理性能を計測するベンチマーククラスです。
+ * <p>
+ * DMLクエリとDDLクエリの振り分けを含めた整形処理全体を {@link BenchmarkCorpus} の各クエリに対して計測します。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlFormatterBenchmark {
+
+    /**
+     * 計測対象のクエリの名前
+     */
+    @Param({ BenchmarkCorpus.OLTP_SELECT, BenchmarkCorpus.NESTED_SUBQUERY, BenchmarkCorpus.IN_LIST,
+            BenchmarkCorpus.MULTI_ROW_INSERT, BenchmarkCorpus.CREATE_TABLE, BenchmarkCorpus.ALTER_TABLE,
+            BenchmarkCorpus.COMMENT_ON })
+    public String corpus;
+
+    /**
+     * 計測対象のクエリ
+     */
+    private String sql;
+
+    /**
+     * 計測対象のフォーマッタ
+     */
+    private Formatter formatter;
+
+    /**
+     * 計測対象のクエリとフォーマッタを準備します。
+     */
+    @Setup
+    public void setUp() {
+        this.sql = BenchmarkCorpus.get(this.corpus);
+        this.formatter = SqlFormatter.of();
+    }
+
+    /**
+     * クエリを整形します。
+     *
+     * @return 整形後のクエリ
+     */
+    @Benchmark
+    public String format() {
+        return this.formatter.format(this.sql);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.ddl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thinkit.formatter.BenchmarkCorpus;
+import org.thinkit.formatter.common.Formatter;
+
+/**
+ * {@link CreateTableFormatter} 、 {@link AlterTableFormatter} 及び {@link CommentOnFormatter}
+ * の処理性能を計測するベンチマーククラスです。
+ * <p>
+ * 各フォーマッタは {@link DdlFormatter} を経由せずに直接呼び出されます。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DdlFormatterBenchmark {
+
+    /**
+     * 1,000列のCREATE TABLE文
+     */
+    private String createTableSql;
+
+    /**
+     * 多数の変更句を持つALTER TABLE文
+     */
+    private String alterTableSql;
+
+    /**
+     * COMMENT ON文
+     */
+    private String commentOnSql;
+
+    /**
+     * CREATE TABLE文のフォーマッタ
+     */
+    private Formatter createTableFormatter;
+
+    /**
+     * ALTER TABLE文のフォーマッタ
+     */
+    private Formatter alterTableFormatter;
+
+    /**
+     * COMMENT ON文のフォーマッタ
+     */
+    private Formatter commentOnFormatter;
+
+    /**
+     * 計測対象のクエリとフォーマッタを準備します。
+     */
+    @Setup
+    public void setUp() {
+        this.createTableSql = BenchmarkCorpus.get(BenchmarkCorpus.CREATE_TABLE);
+        this.alterTableSql = BenchmarkCorpus.get(BenchmarkCorpus.ALTER_TABLE);
+        this.commentOnSql = BenchmarkCorpus.get(BenchmarkCorpus.COMMENT_ON);
+        this.createTableFormatter = CreateTableFormatter.of();
+        this.alterTableFormatter = AlterTableFormatter.of();
+        this.commentOnFormatter = CommentOnFormatter.of();
+    }
+
+    /**
+     * CREATE TABLE文を整形します。
+     *
+     * @return 整形後のクエリ
+     */
+    @Benchmark
+    public String createTable() {
+        return this.createTableFormatter.format(this.createTableSql);
+    }
+
+    /**
+     * ALTER TABLE文を整形します。
+     *
+     * @return 整形後のクエリ
+     */
+    @Benchmark
+    public String alterTable() {
+        return this.alterTableFormatter.format(this.alterTableSql);
+    }
+
+    /**
+     * COMMENT ON文を整形します。
+     *
+     * @return 整形後のクエリ
+     */
+    @Benchmark
+    public String commentOn() {
+        return this.commentOnFormatter.format(this.commentOnSql);
+    }
+}
\ No newline at end of file
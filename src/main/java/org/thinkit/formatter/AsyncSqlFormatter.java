@@ -0,0 +1,529 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.thinkit.common.exception.IllegalNumberFoundException;
+import org.thinkit.formatter.common.Formatter;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * 呼び出し元のスレッドで整形を行わず、専用のワーカースレッドでクエリを非同期に整形するフォーマッタクラスです。
+ * <p>
+ * {@link #formatAsync(String)} メソッドに渡されたクエリは上限のあるキューへ格納されて直ちに返却され、整形結果は返却された
+ * {@link CompletableFuture} で受け取ります。 キューが満杯の場合の振る舞いは {@link OverflowPolicy} で指定します。既定では呼び出し元を待機させず、
+ * 整形前のクエリをそのまま整形結果として返却します。
+ * <p>
+ * キューに格納されているクエリ数と、破棄または未整形のまま返却したクエリ数はそれぞれ {@link #getQueueDepth()} 、
+ * {@link #getDroppedCount()} 、 {@link #getPassedThroughCount()} メソッドから取得することができます。
+ * <p>
+ * {@link #close()} メソッドを呼び出すと新しいクエリの受け付けを停止し、キューに残っているクエリを整形した後にワーカースレッドを終了します。
+ *
+ * <pre>
+ * try (AsyncSqlFormatter formatter = AsyncSqlFormatter.builder().withQueueCapacity(4096)
+ *         .withOverflowPolicy(AsyncSqlFormatter.OverflowPolicy.PASS_THROUGH).build()) {
+ *     formatter.formatAsync(sql).thenAccept(logger::debug);
+ * }
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class AsyncSqlFormatter implements Closeable {
+
+    /**
+     * ワーカースレッドがキューから一度に取り出す最大のクエリ数
+     */
+    private static final int DRAIN_BATCH_SIZE = 16;
+
+    /**
+     * 整形処理を委譲するフォーマッタ
+     */
+    private Formatter formatter;
+
+    /**
+     * キューが満杯の場合の振る舞い
+     */
+    private OverflowPolicy overflowPolicy;
+
+    /**
+     * 整形を待機しているクエリのキュー
+     */
+    @ToString.Exclude
+    private BlockingQueue<Task> queue;
+
+    /**
+     * ワーカースレッド
+     */
+    @ToString.Exclude
+    private Thread[] workers;
+
+    /**
+     * 停止の有無
+     */
+    private volatile boolean closed;
+
+    /**
+     * 整形したクエリ数
+     */
+    private LongAdder completedCount;
+
+    /**
+     * 整形に失敗したクエリ数
+     */
+    private LongAdder failedCount;
+
+    /**
+     * 破棄したクエリ数
+     */
+    private LongAdder droppedCount;
+
+    /**
+     * 整形せずにそのまま返却したクエリ数
+     */
+    private LongAdder passedThroughCount;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private AsyncSqlFormatter() {
+    }
+
+    /**
+     * {@link AsyncSqlFormatter} クラスのインスタンスを生成する {@link Builder} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @return {@link Builder} クラスの新しいインスタンス
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * キューが満杯の場合に {@link AsyncSqlFormatter#formatAsync(String)} メソッドが取る振る舞いを定義した列挙型です。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * クエリを破棄し、 {@link RejectedExecutionException} で異常終了した {@link CompletableFuture} を返却します。
+         */
+        DROP,
+
+        /**
+         * クエリを整形せず、整形前のクエリで完了した {@link CompletableFuture} を返却します。
+         */
+        PASS_THROUGH,
+
+        /**
+         * キューに空きができるまで呼び出し元のスレッドを待機させます。
+         */
+        BLOCK;
+    }
+
+    /**
+     * {@link AsyncSqlFormatter} クラスのインスタンスを生成する処理を定義したビルダークラスです。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    public static class Builder {
+
+        /**
+         * インデント数
+         */
+        private int indent = -1;
+
+        /**
+         * 整形処理を委譲するフォーマッタ
+         */
+        private Formatter formatter;
+
+        /**
+         * キューの容量
+         */
+        private int queueCapacity = 1024;
+
+        /**
+         * ワーカースレッド数
+         */
+        private int workers = 1;
+
+        /**
+         * キューが満杯の場合の振る舞い
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.PASS_THROUGH;
+
+        /**
+         * デフォルトコンストラクタ
+         */
+        private Builder() {
+        }
+
+        /**
+         * インデント数を設定します。 {@link #withFormatter(Formatter)} メソッドでフォーマッタが設定された場合は使用されません。
+         * <p>
+         * 負数が設定された場合はコンテンツに定義された既定のインデント数が使用されます。
+         *
+         * @param indent インデント数
+         * @return 自分自身のインスタンス
+         */
+        public Builder withIndent(int indent) {
+            this.indent = indent;
+            return this;
+        }
+
+        /**
+         * 整形処理を委譲するフォーマッタを設定します。複数のワーカースレッドから同時に呼び出されるため、スレッドセーフである必要があります。
+         * <p>
+         * 設定されない場合は {@link SqlFormatter} クラスが使用されます。
+         *
+         * @param formatter 整形処理を委譲するフォーマッタ
+         * @return 自分自身のインスタンス
+         *
+         * @exception NullPointerException 引数として {@code null} が渡された場合
+         */
+        public Builder withFormatter(@NonNull Formatter formatter) {
+            this.formatter = formatter;
+            return this;
+        }
+
+        /**
+         * 整形を待機するクエリを格納するキューの容量を設定します。
+         *
+         * @param queueCapacity キューの容量
+         * @return 自分自身のインスタンス
+         *
+         * @throws IllegalNumberFoundException 引数として渡された {@code queueCapacity} が1未満の場合
+         */
+        public Builder withQueueCapacity(int queueCapacity) {
+            this.queueCapacity = requireGreaterThanZero(queueCapacity);
+            return this;
+        }
+
+        /**
+         * クエリを整形するワーカースレッド数を設定します。
+         *
+         * @param workers ワーカースレッド数
+         * @return 自分自身のインスタンス
+         *
+         * @throws IllegalNumberFoundException 引数として渡された {@code workers} が1未満の場合
+         */
+        public Builder withWorkers(int workers) {
+            this.workers = requireGreaterThanZero(workers);
+            return this;
+        }
+
+        /**
+         * キューが満杯の場合の振る舞いを設定します。
+         *
+         * @param overflowPolicy キューが満杯の場合の振る舞い
+         * @return 自分自身のインスタンス
+         *
+         * @exception NullPointerException 引数として {@code null} が渡された場合
+         */
+        public Builder withOverflowPolicy(@NonNull OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * 引数として渡された {@code number} が1以上であることを検証します。
+         *
+         * @param number 検証する数値
+         * @return {@code number}
+         *
+         * @throws IllegalNumberFoundException {@code number} が1未満の場合
+         */
+        private static int requireGreaterThanZero(int number) {
+
+            if (number < 1) {
+                throw new IllegalNumberFoundException(
+                        String.format("Number must be greater than 0 but %s was given", number));
+            }
+
+            return number;
+        }
+
+        /**
+         * 設定された値を基に {@link AsyncSqlFormatter} クラスの新しいインスタンスを生成し、ワーカースレッドを開始した上で返却します。
+         *
+         * @return {@link AsyncSqlFormatter} クラスの新しいインスタンス
+         */
+        public AsyncSqlFormatter build() {
+
+            final AsyncSqlFormatter formatter = new AsyncSqlFormatter();
+            formatter.formatter = this.formatter != null ? this.formatter : SqlFormatter.withIndent(this.indent);
+            formatter.overflowPolicy = this.overflowPolicy;
+            formatter.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+            formatter.workers = new Thread[this.workers];
+            formatter.completedCount = new LongAdder();
+            formatter.failedCount = new LongAdder();
+            formatter.droppedCount = new LongAdder();
+            formatter.passedThroughCount = new LongAdder();
+
+            for (int i = 0; i < this.workers; i++) {
+                final Thread worker = new Thread(formatter::work, String.format("sql-formatter-async-%d", i));
+                worker.setDaemon(true);
+                formatter.workers[i] = worker;
+            }
+
+            for (Thread worker : formatter.workers) {
+                worker.start();
+            }
+
+            return formatter;
+        }
+    }
+
+    /**
+     * 引数として渡された {@code sql} の整形をワーカースレッドへ依頼し、整形結果で完了する {@link CompletableFuture} を返却します。
+     * <p>
+     * キューが満杯の場合は {@link OverflowPolicy} に従って処理されます。 {@link #close()} メソッドが呼び出された後は待機せずに、
+     * {@link OverflowPolicy#PASS_THROUGH} の場合は整形前のクエリで、それ以外の場合は
+     * {@link RejectedExecutionException} で完了した {@link CompletableFuture} を返却します。
+     * <p>
+     * 整形に失敗した場合、返却された {@link CompletableFuture} は発生した例外で異常終了します。
+     *
+     * @param sql 整形対象のクエリ
+     * @return 整形結果で完了する {@link CompletableFuture}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public CompletableFuture<String> formatAsync(@NonNull String sql) {
+
+        final Task task = new Task(sql);
+
+        if (this.closed) {
+            this.reject(task, true);
+            return task.future;
+        }
+
+        if (!this.queue.offer(task)) {
+            if (this.overflowPolicy != OverflowPolicy.BLOCK) {
+                this.reject(task, false);
+                return task.future;
+            }
+
+            try {
+                this.queue.put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                task.future.completeExceptionally(e);
+                return task.future;
+            }
+        }
+
+        if (this.closed && this.queue.remove(task)) {
+            // accepted after the workers were asked to stop, nobody else will take it
+            this.reject(task, true);
+        }
+
+        return task.future;
+    }
+
+    /**
+     * キューに格納できなかった {@code task} を {@link OverflowPolicy} に従って完了させます。
+     *
+     * @param task   キューに格納できなかったタスク
+     * @param closed 停止後に渡されたタスクの場合は {@code true} 、キューが満杯だった場合は {@code false}
+     */
+    private void reject(Task task, boolean closed) {
+
+        if (this.overflowPolicy == OverflowPolicy.PASS_THROUGH) {
+            this.passedThroughCount.increment();
+            task.future.complete(task.sql);
+            return;
+        }
+
+        this.droppedCount.increment();
+        task.future.completeExceptionally(new RejectedExecutionException(
+                closed ? "The formatter has been closed" : "The formatting queue is full"));
+    }
+
+    /**
+     * ワーカースレッドの処理です。停止されるまでキューからタスクを取り出して整形します。
+     * <p>
+     * 停止された後はキューに残っているタスクを全て整形してから終了します。
+     */
+    private void work() {
+
+        final List<Task> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+
+        while (true) {
+
+            final Task task;
+
+            try {
+                task = this.closed ? this.queue.poll() : this.queue.take();
+            } catch (InterruptedException e) {
+                // woken up by close() to drain the rest of the queue
+                continue;
+            }
+
+            if (task == null) {
+                return;
+            }
+
+            batch.add(task);
+            this.queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+
+            for (Task formattingTask : batch) {
+                this.run(formattingTask);
+            }
+
+            batch.clear();
+        }
+    }
+
+    /**
+     * 引数として渡された {@code task} のクエリを整形し、整形結果でタスクを完了させます。
+     *
+     * @param task タスク
+     */
+    private void run(Task task) {
+        try {
+            task.future.complete(this.formatter.format(task.sql));
+            this.completedCount.increment();
+        } catch (RuntimeException e) {
+            this.failedCount.increment();
+            task.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 整形を待機しているクエリ数を返却します。
+     *
+     * @return キューに格納されているクエリ数
+     */
+    public int getQueueDepth() {
+        return this.queue.size();
+    }
+
+    /**
+     * 整形が完了したクエリ数を返却します。
+     *
+     * @return 整形が完了したクエリ数
+     */
+    public long getCompletedCount() {
+        return this.completedCount.sum();
+    }
+
+    /**
+     * 整形に失敗したクエリ数を返却します。
+     *
+     * @return 整形に失敗したクエリ数
+     */
+    public long getFailedCount() {
+        return this.failedCount.sum();
+    }
+
+    /**
+     * キューが満杯、または停止後だったために破棄したクエリ数を返却します。
+     *
+     * @return 破棄したクエリ数
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.sum();
+    }
+
+    /**
+     * キューが満杯、または停止後だったために整形せずにそのまま返却したクエリ数を返却します。
+     *
+     * @return 整形せずに返却したクエリ数
+     */
+    public long getPassedThroughCount() {
+        return this.passedThroughCount.sum();
+    }
+
+    /**
+     * 新しいクエリの受け付けを停止し、キューに残っているクエリを整形した後にワーカースレッドを終了します。
+     * <p>
+     * ワーカースレッドが終了するまで呼び出し元のスレッドを待機させます。 待機中に割り込まれた場合は割り込み状態を設定して直ちに返却します。
+     */
+    @Override
+    public void close() {
+
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+        }
+
+        for (Thread worker : this.workers) {
+            worker.interrupt();
+        }
+
+        try {
+            for (Thread worker : this.workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        Task task;
+        while ((task = this.queue.poll()) != null) {
+            this.reject(task, true);
+        }
+    }
+
+    /**
+     * 整形を待機するクエリと、その整形結果で完了する {@link CompletableFuture} を保持するタスクです。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    private static final class Task {
+
+        /**
+         * 整形対象のクエリ
+         */
+        private final String sql;
+
+        /**
+         * 整形結果で完了する {@link CompletableFuture}
+         */
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        /**
+         * コンストラクタ
+         *
+         * @param sql 整形対象のクエリ
+         */
+        private Task(String sql) {
+            this.sql = sql;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,684 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.thinkit.common.Precondition;
+import org.thinkit.common.exception.IllegalNumberFoundException;
+import org.thinkit.formatter.common.Formatter;
+import org.thinkit.formatter.dml.DmlShape;
+import org.thinkit.formatter.dml.DmlTemplate;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * {@link SqlFormatter} クラスの整形結果をキャッシュするフォーマッタクラスです。
+ * <p>
+ * 整形前のクエリをキーとして整形結果を保持し、同じクエリが再度渡された場合は整形処理を行わずにキャッシュした整形結果を返却します。
+ * キャッシュは保持するエントリ数と、保持するクエリ及び整形結果の合計文字数によって上限が設けられ、上限を超えた場合は最も長く参照されていないエントリから破棄されます。
+ * <p>
+ * キャッシュは複数のセグメントへ分割されており、セグメント毎にロックを取得するため複数のスレッドから同時に使用することができます。
+ * 最大エントリ数はセグメントへ余りなく配分され、最大文字数は全てのセグメントで共有されるため、いずれの上限もキャッシュ全体に対して適用されます。
+ * キャッシュのヒット数、ミス数、破棄数はそれぞれ {@link #getHitCount()} 、 {@link #getMissCount()} 、
+ * {@link #getEvictionCount()} メソッドから取得することができます。
+ * <p>
+ * {@link Builder#withLiteralTemplate(boolean)} メソッドでリテラルのテンプレート化を有効にした場合、DMLクエリは文字列リテラルと数値リテラルを
+ * プレースホルダへ置き換えた形状をキーとしてキャッシュされます。リテラルのみが異なるクエリは同じ整形結果を共有し、
+ * キャッシュから取得した整形結果へ元のリテラルを埋め戻して返却します。
+ *
+ * <pre>
+ * Formatter formatter = CachingSqlFormatter.builder().withMaximumEntries(4096).withMaximumCharacters(8 * 1024 * 1024)
+ *         .build();
+ * String formattedSql = formatter.format(sql);
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class CachingSqlFormatter implements Formatter {
+
+    /**
+     * 整形処理を委譲するフォーマッタ
+     */
+    private Formatter formatter;
+
+    /**
+     * リテラルのテンプレート化の有無
+     */
+    private boolean literalTemplate;
+
+    /**
+     * キャッシュのセグメント
+     */
+    @ToString.Exclude
+    private Segment[] segments;
+
+    /**
+     * セグメントの位置を求めるためのマスク
+     */
+    private int segmentMask;
+
+    /**
+     * キャッシュのヒット数
+     */
+    private LongAdder hitCount;
+
+    /**
+     * キャッシュのミス数
+     */
+    private LongAdder missCount;
+
+    /**
+     * キャッシュから破棄されたエントリ数
+     */
+    private LongAdder evictionCount;
+
+    /**
+     * 最大文字数
+     */
+    private long maximumCharacters;
+
+    /**
+     * 全てのセグメントが保持している文字数
+     */
+    private AtomicLong characters;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private CachingSqlFormatter() {
+    }
+
+    /**
+     * {@link CachingSqlFormatter} クラスのインスタンスを生成する {@link Builder} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @return {@link Builder} クラスの新しいインスタンス
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * {@link CachingSqlFormatter} クラスのインスタンスを生成する処理を定義したビルダークラスです。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    public static class Builder {
+
+        /**
+         * インデント数
+         */
+        private int indent = -1;
+
+        /**
+         * 最大エントリ数
+         */
+        private int maximumEntries = 1024;
+
+        /**
+         * 最大文字数
+         */
+        private long maximumCharacters = 4L * 1024 * 1024;
+
+        /**
+         * セグメント数
+         */
+        private int concurrencyLevel = 16;
+
+        /**
+         * リテラルのテンプレート化の有無
+         */
+        private boolean literalTemplate = false;
+
+        /**
+         * デフォルトコンストラクタ
+         */
+        private Builder() {
+        }
+
+        /**
+         * インデント数を設定します。
+         * <p>
+         * 負数が設定された場合はコンテンツに定義された既定のインデント数が使用されます。
+         *
+         * @param indent インデント数
+         * @return 自分自身のインスタンス
+         */
+        public Builder withIndent(int indent) {
+            this.indent = indent;
+            return this;
+        }
+
+        /**
+         * キャッシュが保持する最大エントリ数を設定します。
+         *
+         * @param maximumEntries 最大エントリ数
+         * @return 自分自身のインスタンス
+         *
+         * @throws IllegalNumberFoundException 引数として渡された {@code maximumEntries} が負数の場合
+         */
+        public Builder withMaximumEntries(int maximumEntries) {
+            Precondition.requirePositive(maximumEntries);
+            this.maximumEntries = maximumEntries;
+            return this;
+        }
+
+        /**
+         * キャッシュが保持するクエリと整形結果の最大合計文字数を設定します。
+         *
+         * @param maximumCharacters 最大文字数
+         * @return 自分自身のインスタンス
+         *
+         * @throws IllegalNumberFoundException 引数として渡された {@code maximumCharacters} が負数の場合
+         */
+        public Builder withMaximumCharacters(long maximumCharacters) {
+
+            if (maximumCharacters < 0) {
+                throw new IllegalNumberFoundException(
+                        String.format("Number must be positive but %s was given", maximumCharacters));
+            }
+
+            this.maximumCharacters = maximumCharacters;
+            return this;
+        }
+
+        /**
+         * キャッシュを分割するセグメント数の目安を設定します。実際のセグメント数は指定された数以上の2の累乗に切り上げられますが、
+         * 各セグメントが1件以上のエントリを保持できるように最大エントリ数以下の2の累乗に制限されます。
+         *
+         * @param concurrencyLevel セグメント数の目安
+         * @return 自分自身のインスタンス
+         *
+         * @throws IllegalNumberFoundException 引数として渡された {@code concurrencyLevel} が負数の場合
+         */
+        public Builder withConcurrencyLevel(int concurrencyLevel) {
+            Precondition.requirePositive(concurrencyLevel);
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        /**
+         * DMLクエリのリテラルをプレースホルダへ置き換えた形状をキーとしてキャッシュするか設定します。
+         * <p>
+         * 終了していない文字列リテラルを含むクエリ、リテラルを含まないクエリ及びDDLクエリは常にクエリ全体をキーとしてキャッシュされます。
+         *
+         * @param literalTemplate リテラルをテンプレート化する場合は {@code true} 、それ以外は {@code false}
+         * @return 自分自身のインスタンス
+         */
+        public Builder withLiteralTemplate(boolean literalTemplate) {
+            this.literalTemplate = literalTemplate;
+            return this;
+        }
+
+        /**
+         * 設定された値を基に {@link CachingSqlFormatter} クラスの新しいインスタンスを生成し返却します。
+         *
+         * @return {@link CachingSqlFormatter} クラスの新しいインスタンス
+         */
+        public CachingSqlFormatter build() {
+
+            int segmentCount = 1;
+            while (segmentCount < this.concurrencyLevel && segmentCount * 2 <= this.maximumEntries) {
+                segmentCount <<= 1;
+            }
+
+            final CachingSqlFormatter formatter = new CachingSqlFormatter();
+            formatter.formatter = SqlFormatter.withIndent(this.indent);
+            formatter.literalTemplate = this.literalTemplate;
+            formatter.segments = new Segment[segmentCount];
+            formatter.segmentMask = segmentCount - 1;
+            formatter.hitCount = new LongAdder();
+            formatter.missCount = new LongAdder();
+            formatter.evictionCount = new LongAdder();
+            formatter.maximumCharacters = this.maximumCharacters;
+            formatter.characters = new AtomicLong();
+
+            final int entriesPerSegment = this.maximumEntries / segmentCount;
+            final int remainder = this.maximumEntries % segmentCount;
+
+            for (int i = 0; i < segmentCount; i++) {
+                formatter.segments[i] = new Segment(entriesPerSegment + (i < remainder ? 1 : 0), this.maximumCharacters,
+                        formatter.characters, formatter.evictionCount);
+            }
+
+            return formatter;
+        }
+    }
+
+    @Override
+    public String format(@NonNull String sql) {
+
+        if (this.literalTemplate && SqlFormatter.isDml(sql)) {
+            final DmlShape shape = DmlShape.of(sql);
+
+            if (shape.isTemplatable()) {
+                final String formattedSql = this.formatShape(shape);
+
+                if (formattedSql != null) {
+                    return formattedSql;
+                }
+            }
+        }
+
+        final Segment segment = this.segmentFor(sql);
+        final Entry cached = segment.get(sql);
+
+        if (cached != null && cached.formattedSql != null) {
+            this.hitCount.increment();
+            return cached.formattedSql;
+        }
+
+        this.missCount.increment();
+
+        final String formattedSql = this.formatter.format(sql);
+        this.put(segment, sql, Entry.of(formattedSql));
+
+        return formattedSql;
+    }
+
+    /**
+     * 引数として渡された {@code shape} をキーとしてキャッシュされたテンプレートへ元のリテラルを埋め戻し、整形後のクエリを返却します。
+     * <p>
+     * テンプレートがキャッシュされていない場合は形状を整形してテンプレートを生成しキャッシュします。
+     * 整形結果のプレースホルダの数がリテラルの数と一致しない場合はテンプレートを使用できないことを示すエントリをキャッシュし、
+     * 以降は同じ形状のクエリの形状を再度整形せずに {@code null} を返却します。その場合、呼び出し元はクエリ全体をキーとしてキャッシュします。
+     *
+     * @param shape クエリの形状
+     * @return 整形後のクエリ。テンプレートを使用できない形状の場合は {@code null}
+     */
+    private String formatShape(DmlShape shape) {
+
+        final String key = shape.getShape();
+        final Segment segment = this.segmentFor(key);
+        final Entry cached = segment.get(key);
+
+        if (cached == Entry.UNTEMPLATABLE) {
+            return null;
+        }
+
+        if (cached != null && cached.template != null && cached.template.accepts(shape)) {
+            this.hitCount.increment();
+            return cached.template.render(shape);
+        }
+
+        final DmlTemplate template = DmlTemplate.of(this.formatter.format(key));
+
+        if (!template.accepts(shape)) {
+            this.put(segment, key, Entry.UNTEMPLATABLE);
+            return null;
+        }
+
+        this.missCount.increment();
+        this.put(segment, key, Entry.of(template));
+
+        return template.render(shape);
+    }
+
+    /**
+     * 引数として渡された {@code segment} へエントリを追加し、キャッシュ全体の文字数が最大文字数を超えた場合は他のセグメントのエントリも破棄します。
+     * <p>
+     * 他のセグメントのロックは追加したセグメントのロックを解放した後に1つずつ取得するため、セグメント間でロックを待ち合うことはありません。
+     *
+     * @param segment エントリを追加するセグメント
+     * @param key     キャッシュのキー
+     * @param entry   整形結果のエントリ
+     */
+    private void put(Segment segment, String key, Entry entry) {
+
+        segment.put(key, entry);
+
+        for (int i = 0; i < this.segments.length && this.characters.get() > this.maximumCharacters; i++) {
+            if (this.segments[i] != segment) {
+                this.segments[i].evictExcessCharacters();
+            }
+        }
+    }
+
+    /**
+     * キャッシュのヒット数を返却します。
+     *
+     * @return キャッシュのヒット数
+     */
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * キャッシュのミス数を返却します。
+     *
+     * @return キャッシュのミス数
+     */
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * キャッシュの上限を超えたために破棄されたエントリ数を返却します。
+     *
+     * @return キャッシュから破棄されたエントリ数
+     */
+    public long getEvictionCount() {
+        return this.evictionCount.sum();
+    }
+
+    /**
+     * キャッシュが現在保持しているエントリ数を返却します。
+     *
+     * @return キャッシュが保持しているエントリ数
+     */
+    public int size() {
+
+        int size = 0;
+
+        for (Segment segment : this.segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * キャッシュが保持している全てのエントリを破棄します。破棄したエントリは破棄数に計上されません。
+     */
+    public void clear() {
+        for (Segment segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * 引数として渡された {@code sql} を保持するセグメントを返却します。
+     *
+     * @param sql 整形前のクエリ
+     * @return {@code sql} を保持するセグメント
+     */
+    private Segment segmentFor(String sql) {
+        final int hash = sql.hashCode();
+        return this.segments[(hash ^ (hash >>> 16)) & this.segmentMask];
+    }
+
+    /**
+     * キャッシュに保持される整形結果です。整形結果とテンプレートのいずれか一方のみを保持します。
+     * <p>
+     * いずれも保持しない {@link #UNTEMPLATABLE} は、テンプレートを使用できない形状であることを示します。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    private static final class Entry {
+
+        /**
+         * テンプレートを使用できない形状を示すエントリ
+         */
+        private static final Entry UNTEMPLATABLE = new Entry(null, null);
+
+        /**
+         * 整形結果
+         */
+        private final String formattedSql;
+
+        /**
+         * テンプレート
+         */
+        private final DmlTemplate template;
+
+        /**
+         * コンストラクタ
+         *
+         * @param formattedSql 整形結果
+         * @param template     テンプレート
+         */
+        private Entry(String formattedSql, DmlTemplate template) {
+            this.formattedSql = formattedSql;
+            this.template = template;
+        }
+
+        /**
+         * 引数として渡された {@code formattedSql} を保持する {@link Entry} クラスの新しいインスタンスを生成し返却します。
+         *
+         * @param formattedSql 整形結果
+         * @return {@link Entry} クラスの新しいインスタンス
+         */
+        private static Entry of(String formattedSql) {
+            return new Entry(formattedSql, null);
+        }
+
+        /**
+         * 引数として渡された {@code template} を保持する {@link Entry} クラスの新しいインスタンスを生成し返却します。
+         *
+         * @param template テンプレート
+         * @return {@link Entry} クラスの新しいインスタンス
+         */
+        private static Entry of(DmlTemplate template) {
+            return new Entry(null, template);
+        }
+
+        /**
+         * 保持している整形結果の文字数を返却します。
+         *
+         * @return 整形結果の文字数
+         */
+        private int length() {
+
+            if (this.template != null) {
+                return this.template.getFormattedShape().length();
+            }
+
+            return this.formattedSql != null ? this.formattedSql.length() : 0;
+        }
+    }
+
+    /**
+     * 参照された順序でエントリを保持し、上限を超えた場合に最も長く参照されていないエントリから破棄するキャッシュのセグメントです。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    private static final class Segment {
+
+        /**
+         * ロック
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * 参照順に並んだエントリ
+         */
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * 最大エントリ数
+         */
+        private final int maximumEntries;
+
+        /**
+         * キャッシュ全体の最大文字数
+         */
+        private final long maximumCharacters;
+
+        /**
+         * 全てのセグメントが保持している文字数
+         */
+        private final AtomicLong totalCharacters;
+
+        /**
+         * 破棄数
+         */
+        private final LongAdder evictionCount;
+
+        /**
+         * 保持している文字数
+         */
+        private long characters;
+
+        /**
+         * コンストラクタ
+         *
+         * @param maximumEntries    最大エントリ数
+         * @param maximumCharacters キャッシュ全体の最大文字数
+         * @param totalCharacters   全てのセグメントが保持している文字数
+         * @param evictionCount     破棄数
+         */
+        private Segment(int maximumEntries, long maximumCharacters, AtomicLong totalCharacters,
+                LongAdder evictionCount) {
+            this.maximumEntries = maximumEntries;
+            this.maximumCharacters = maximumCharacters;
+            this.totalCharacters = totalCharacters;
+            this.evictionCount = evictionCount;
+        }
+
+        /**
+         * 引数として渡された {@code sql} に対応する整形結果を返却します。
+         *
+         * @param sql 整形前のクエリ
+         * @return 整形結果のエントリ。キャッシュに存在しない場合は {@code null}
+         */
+        private Entry get(String sql) {
+            this.lock.lock();
+            try {
+                return this.entries.get(sql);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * 引数として渡された {@code sql} と整形結果のエントリをキャッシュへ追加し、上限を超えたエントリを破棄します。
+         * <p>
+         * キャッシュ全体の文字数が最大文字数を超えた場合は、追加したエントリを除いてこのセグメントの最も長く参照されていないエントリから破棄します。
+         * 1つのエントリだけでキャッシュ全体の最大文字数を超える場合はキャッシュへ追加しません。
+         *
+         * @param sql   整形前のクエリ
+         * @param entry 整形結果のエントリ
+         */
+        private void put(String sql, Entry entry) {
+
+            final long weight = weigh(sql, entry);
+
+            if (this.maximumEntries == 0 || weight > this.maximumCharacters) {
+                return;
+            }
+
+            this.lock.lock();
+            try {
+                final Entry previous = this.entries.put(sql, entry);
+
+                if (previous != null) {
+                    this.addCharacters(-weigh(sql, previous));
+                }
+
+                this.addCharacters(weight);
+
+                final Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+
+                while (iterator.hasNext() && (this.entries.size() > this.maximumEntries
+                        || (this.entries.size() > 1 && this.totalCharacters.get() > this.maximumCharacters))) {
+                    this.evict(iterator);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * キャッシュ全体の文字数が最大文字数以下になるまで、このセグメントの最も長く参照されていないエントリから破棄します。
+         */
+        private void evictExcessCharacters() {
+            this.lock.lock();
+            try {
+                final Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+
+                while (iterator.hasNext() && this.totalCharacters.get() > this.maximumCharacters) {
+                    this.evict(iterator);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * 引数として渡された {@code iterator} の次のエントリを破棄します。
+         *
+         * @param iterator 参照順に並んだエントリのイテレータ
+         */
+        private void evict(Iterator<Map.Entry<String, Entry>> iterator) {
+            final Map.Entry<String, Entry> eldest = iterator.next();
+            this.addCharacters(-weigh(eldest.getKey(), eldest.getValue()));
+            iterator.remove();
+            this.evictionCount.increment();
+        }
+
+        /**
+         * このセグメントとキャッシュ全体が保持している文字数へ {@code delta} を加算します。
+         *
+         * @param delta 加算する文字数
+         */
+        private void addCharacters(long delta) {
+            this.characters += delta;
+            this.totalCharacters.addAndGet(delta);
+        }
+
+        /**
+         * 保持しているエントリ数を返却します。
+         *
+         * @return 保持しているエントリ数
+         */
+        private int size() {
+            this.lock.lock();
+            try {
+                return this.entries.size();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * 保持している全てのエントリを破棄します。
+         */
+        private void clear() {
+            this.lock.lock();
+            try {
+                this.entries.clear();
+                this.addCharacters(-this.characters);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * エントリが保持する文字数を返却します。
+         *
+         * @param sql   整形前のクエリ
+         * @param entry 整形結果のエントリ
+         * @return エントリが保持する文字数
+         */
+        private static long weigh(String sql, Entry entry) {
+            return (long) sql.length() + entry.length();
+        }
+    }
+}
\ No newline at end of file
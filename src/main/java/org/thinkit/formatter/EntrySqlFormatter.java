@@ -14,8 +14,24 @@
 
 package org.thinkit.formatter;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.thinkit.formatter.daemon.FormatterClient;
+import org.thinkit.formatter.daemon.FormatterDaemon;
+
 /**
  * {@link SqlFormatter} クラスをコマンドラインから実行する際のエントリーポイントです。
+ * <p>
+ * 常駐する {@link FormatterDaemon} を起動するデーモンモードと、起動済みのデーモンへ整形を依頼するクライアントモード、
+ * SQLスクリプトのファイルを整形するファイルモードも提供します。
  *
  * @author Kato Shinya
  * @since 1.0
@@ -23,6 +39,36 @@ package org.thinkit.formatter;
  */
 public final class EntrySqlFormatter {
 
+    /**
+     * デーモンモードを表すオプション
+     */
+    private static final String DAEMON_OPTION = "--daemon";
+
+    /**
+     * クライアントモードを表すオプション
+     */
+    private static final String CLIENT_OPTION = "--client";
+
+    /**
+     * ファイルモードを表すオプション
+     */
+    private static final String FILE_OPTION = "--file";
+
+    /**
+     * デーモンのソケットファイルのパスを指定するシステムプロパティ
+     */
+    private static final String SOCKET_PROPERTY = "org.thinkit.formatter.socket";
+
+    /**
+     * デーモンのソケットファイルのパスを指定する環境変数
+     */
+    private static final String SOCKET_ENVIRONMENT = "SQL_FORMATTER_SOCKET";
+
+    /**
+     * デフォルトのソケットファイル名
+     */
+    private static final String DEFAULT_SOCKET_NAME = "sql-formatter.sock";
+
     /**
      * 与えられたコマンドライン引数から {@link SqlFormatter} クラスの処理を開始します。
      * <p>
@@ -30,19 +76,148 @@ public final class EntrySqlFormatter {
      *
      * <ol>
      * <li>整形対象のSQLクエリ（必須）</li>
+     * <li>インデント数（必須）。負数の場合はデフォルトのインデント数</li>
      * </ol>
+     * <p>
+     * システムプロパティ {@code org.thinkit.formatter.socket} または環境変数 {@code SQL_FORMATTER_SOCKET}
+     * にソケットファイルのパスが指定され、そのパスでデーモンが待ち受けている場合は整形をデーモンへ依頼します。
+     * デーモンへ接続できない場合はこのプロセスで整形します。
+     * <p>
+     * 以下の形式でデーモンモードとクライアントモードを実行することができます。ソケットファイルのパスを省略した場合は一時ディレクトリの
+     * {@code sql-formatter.sock} が使用されます。
+     *
+     * <pre>
+     * --daemon [ソケットファイルのパス]
+     * --client ソケットファイルのパス 整形対象のSQLクエリ [インデント数]
+     * </pre>
+     * <p>
+     * 以下の形式でUTF-8のSQLスクリプトのファイルをクエリ毎に整形し、整形結果を標準出力へ出力することができます。
+     *
+     * <pre>
+     * --file SQLスクリプトのファイルのパス [インデント数]
+     * </pre>
      *
      * @param args コマンドライン引数
      *
+     * @throws IOException              デーモンの起動、デーモンの接続の受け付け、デーモンとの通信、またはファイルの読み込みに失敗した場合
+     * @throws InterruptedException     デーモンの停止を待機している間に割り込まれた場合
      * @throws IllegalArgumentException 必須のコマンドライン引数が渡されたなかった場合
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        if (args.length > 0 && DAEMON_OPTION.equals(args[0])) {
+            runDaemon(args.length > 1 ? Paths.get(args[1]) : defaultSocket());
+            return;
+        }
+
+        if (args.length > 0 && CLIENT_OPTION.equals(args[0])) {
+            if (args.length < 3) {
+                throw new IllegalArgumentException(
+                        "The socket path and SQL query to be formatted are required in client mode.");
+            }
+
+            try (FormatterClient client = FormatterClient.connect(Paths.get(args[1]))) {
+                System.out.println(client.format(args[2], args.length > 3 ? Integer.parseInt(args[3]) : -1));
+            }
+
+            return;
+        }
+
+        if (args.length > 0 && FILE_OPTION.equals(args[0])) {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("The SQL script file to be formatted is required in file mode.");
+            }
+
+            formatFile(Paths.get(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : -1);
+            return;
+        }
 
         if (args.length < 1) {
             throw new IllegalArgumentException(
                     "No argument was passed to start the SQL formatter. SQL query to be formatted is a required.");
         }
 
-        System.out.println(SqlFormatter.withIndent(Integer.parseInt(args[1])).format(args[0]));
+        final int indent = Integer.parseInt(args[1]);
+        final String formattedSql = formatOnDaemon(args[0], indent);
+
+        System.out.println(formattedSql != null ? formattedSql : SqlFormatter.withIndent(indent).format(args[0]));
+    }
+
+    /**
+     * 引数として渡された {@code socket} で待ち受けるデーモンを起動し、プロセスが終了するまで待機します。
+     *
+     * @param socket ソケットファイルのパス
+     *
+     * @throws IOException          デーモンの起動に失敗した場合、または接続の受け付けに失敗してデーモンが停止した場合
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    private static void runDaemon(Path socket) throws IOException, InterruptedException {
+
+        final FormatterDaemon daemon = FormatterDaemon.of(socket).start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                daemon.close();
+            } catch (IOException e) {
+                System.err.println(String.format("Failed to stop SQL formatter daemon on %s: %s", socket, e));
+            }
+        }));
+
+        System.err.println(String.format("SQL formatter daemon is listening on %s", socket));
+        daemon.await();
+    }
+
+    /**
+     * 引数として渡された {@code script} のSQLスクリプトをUTF-8で読み込み、クエリ毎に整形した結果を標準出力へ出力します。
+     *
+     * @param script SQLスクリプトのファイルのパス
+     * @param indent インデント数
+     *
+     * @throws IOException ファイルの読み込み、または標準出力への出力に失敗した場合
+     */
+    private static void formatFile(Path script, int indent) throws IOException {
+
+        final Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+
+        try (Reader reader = Files.newBufferedReader(script, StandardCharsets.UTF_8)) {
+            SqlFormatter.create(indent).format(reader, output);
+        }
+
+        output.flush();
+    }
+
+    /**
+     * 設定されたソケットファイルで待ち受けるデーモンへ整形を依頼し、整形結果を返却します。
+     *
+     * @param sql    整形対象のSQLクエリ
+     * @param indent インデント数
+     * @return 整形結果。ソケットファイルが設定されていない場合、またはデーモンへ接続できない場合は {@code null}
+     */
+    private static String formatOnDaemon(String sql, int indent) {
+
+        String socket = System.getProperty(SOCKET_PROPERTY);
+
+        if (socket == null || socket.isEmpty()) {
+            socket = System.getenv(SOCKET_ENVIRONMENT);
+        }
+
+        if (socket == null || socket.isEmpty() || !Files.exists(Paths.get(socket))) {
+            return null;
+        }
+
+        try (FormatterClient client = FormatterClient.connect(Paths.get(socket))) {
+            return client.format(sql, indent);
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * デフォルトのソケットファイルのパスを返却します。
+     *
+     * @return 一時ディレクトリにあるデフォルトのソケットファイルのパス
+     */
+    private static Path defaultSocket() {
+        return Paths.get(System.getProperty("java.io.tmpdir"), DEFAULT_SOCKET_NAME);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * ファイルを {@link FileChannel#map(FileChannel.MapMode, long, long)} でメモリへ割り当て、割り当てた領域から直接文字を読み込むリーダークラスです。
+ * <p>
+ * ファイルは先頭から一定の大きさの範囲毎に割り当てられ、読み込みが範囲の終端に達した時点で次の範囲が割り当てられます。
+ * 割り当てた範囲は再利用される1つの {@link CharsetDecoder} で復号されるため、ファイル全体を文字列としてヒープへ読み込むことはありません。
+ * 範囲の境界で分断された複数バイトの文字は、次の範囲の先頭に含めて復号されます。
+ * <p>
+ * 復号できないバイト列は置換文字として読み込まれます。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+final class MappedFileReader extends Reader {
+
+    /**
+     * 1度に割り当てる範囲の最大の大きさ
+     */
+    private static final int MAXIMUM_WINDOW_SIZE = 1 << 26;
+
+    /**
+     * 復号した文字を保持するバッファのサイズ
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 読み込み元のチャネル
+     */
+    private FileChannel channel;
+
+    /**
+     * 読み込み元のファイルの大きさ
+     */
+    private long size;
+
+    /**
+     * 現在割り当てている範囲
+     */
+    @ToString.Exclude
+    private ByteBuffer window;
+
+    /**
+     * 現在割り当てている範囲の終了位置
+     */
+    private long windowEnd;
+
+    /**
+     * 文字コードの復号器
+     */
+    @ToString.Exclude
+    private CharsetDecoder decoder;
+
+    /**
+     * 復号した文字を保持するバッファ
+     */
+    @ToString.Exclude
+    private CharBuffer buffer;
+
+    /**
+     * 読み込み元の終端まで復号したかの可否
+     */
+    private boolean flushed;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private MappedFileReader() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param channel 読み込み元のチャネル
+     * @param charset 読み込み元の文字コード
+     *
+     * @throws IOException ファイルの割り当てに失敗した場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private MappedFileReader(@NonNull FileChannel channel, @NonNull Charset charset) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.buffer = CharBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+        this.map(0);
+    }
+
+    /**
+     * 引数として渡された {@code channel} のファイルを {@code charset} で復号して読み込む {@link MappedFileReader}
+     * クラスの新しいインスタンスを生成し返却します。
+     * <p>
+     * {@code channel} は {@link #close()} メソッドで閉じられます。
+     *
+     * @param channel 読み込み元のチャネル
+     * @param charset 読み込み元の文字コード
+     * @return {@link MappedFileReader} クラスの新しいインスタンス
+     *
+     * @throws IOException ファイルの割り当てに失敗した場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static MappedFileReader of(@NonNull FileChannel channel, @NonNull Charset charset) throws IOException {
+        return new MappedFileReader(channel, charset);
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+
+        if (this.window == null) {
+            throw new IOException("Stream closed");
+        }
+
+        if (length == 0) {
+            return 0;
+        }
+
+        if (!this.buffer.hasRemaining() && !this.fill()) {
+            return -1;
+        }
+
+        final int size = Math.min(length, this.buffer.remaining());
+        this.buffer.get(chars, offset, size);
+
+        return size;
+    }
+
+    /**
+     * 割り当てた範囲から次の文字列を復号してバッファへ格納します。
+     * <p>
+     * 割り当てた範囲を全て復号した場合は次の範囲を割り当てて復号を続けます。
+     *
+     * @return 復号した文字が存在する場合は {@code true} 、読み込み元の終端に達した場合は {@code false}
+     *
+     * @throws IOException 次の範囲の割り当てに失敗した場合
+     */
+    private boolean fill() throws IOException {
+
+        this.buffer.clear();
+
+        try {
+            while (this.buffer.position() == 0 && !this.flushed) {
+
+                final boolean endOfInput = this.windowEnd >= this.size;
+                final CoderResult result = this.decoder.decode(this.window, this.buffer, endOfInput);
+
+                if (result.isError()) {
+                    result.throwException();
+                }
+
+                if (result.isUnderflow()) {
+                    if (endOfInput) {
+                        this.decoder.flush(this.buffer);
+                        this.flushed = true;
+                    } else {
+                        this.map(this.windowEnd - this.window.remaining());
+                    }
+                }
+            }
+        } finally {
+            this.buffer.flip();
+        }
+
+        return this.buffer.hasRemaining();
+    }
+
+    /**
+     * ファイルの {@code position} の位置から始まる範囲を割り当てます。
+     *
+     * @param position 割り当てる範囲の開始位置
+     *
+     * @throws IOException ファイルの割り当てに失敗した場合
+     */
+    private void map(long position) throws IOException {
+        final long windowSize = Math.min(MAXIMUM_WINDOW_SIZE, this.size - position);
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+        this.windowEnd = position + windowSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+}
\ No newline at end of file
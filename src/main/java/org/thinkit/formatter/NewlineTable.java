@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * 改行コードとインデントを連結した文字列を事前に生成して保持する表クラスです。
+ * <p>
+ * 改行コードの後にインデントの単位を繰り返し連結した1つの文字配列を保持し、インデントの深さに応じた長さの範囲を切り出して出力先へ一括で追加します。
+ * そのため、改行毎に改行コードとインデントを連結した一時的な文字列は生成されません。 表はインデントの単位毎に1つだけ生成され、プロセス全体で共有されます。
+ *
+ * <pre>
+ * final NewlineTable newlineTable = NewlineTable.of(indent.getIndent());
+ * newlineTable.appendTo(sql, indent.getIndentFactor());
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class NewlineTable {
+
+    /**
+     * 改行コード
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * 表を生成する際の初期の深さ
+     */
+    private static final int INITIAL_DEPTH = 32;
+
+    /**
+     * インデントの単位毎の表
+     */
+    private static final ConcurrentMap<String, NewlineTable> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * インデントの単位
+     */
+    private final String indent;
+
+    /**
+     * 改行コードの後にインデントの単位を繰り返し連結した文字配列
+     */
+    @ToString.Exclude
+    private volatile char[] table;
+
+    /**
+     * コンストラクタ
+     *
+     * @param indent インデントの単位
+     */
+    private NewlineTable(String indent) {
+        this.indent = indent;
+        this.table = this.render(INITIAL_DEPTH);
+    }
+
+    /**
+     * 引数として渡された {@code indent} をインデントの単位とする表を返却します。
+     *
+     * @param indent インデントの単位
+     * @return {@code indent} をインデントの単位とする表
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static NewlineTable of(@NonNull String indent) {
+        return TABLES.computeIfAbsent(indent, NewlineTable::new);
+    }
+
+    /**
+     * 改行コードと引数として渡された {@code depth} の深さのインデントを {@code output} へ追加します。
+     * <p>
+     * {@code depth} が負数の場合は深さを {@code 0} として扱い、改行コードのみを追加します。
+     *
+     * @param output 出力先
+     * @param depth  インデントの深さ
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public void appendTo(@NonNull StringBuilder output, int depth) {
+
+        final int clampedDepth = Math.max(depth, 0);
+        final int length = this.lengthOf(clampedDepth);
+        char[] table = this.table;
+
+        if (length > table.length) {
+            table = this.grow(clampedDepth);
+        }
+
+        output.append(table, 0, length);
+    }
+
+    /**
+     * 引数として渡された {@code depth} の深さを含むよう表を拡張し、拡張後の文字配列を返却します。
+     *
+     * @param depth インデントの深さ
+     * @return 拡張後の文字配列
+     */
+    private synchronized char[] grow(int depth) {
+
+        final char[] table = this.table;
+
+        if (this.lengthOf(depth) <= table.length) {
+            return table;
+        }
+
+        final int currentDepth = (table.length - LINE_SEPARATOR.length()) / this.indent.length();
+        final char[] grownTable = this.render(Math.max(depth, currentDepth * 2));
+        this.table = grownTable;
+
+        return grownTable;
+    }
+
+    /**
+     * 改行コードの後にインデントの単位を {@code depth} 回連結した文字配列を生成し返却します。
+     *
+     * @param depth インデントの深さ
+     * @return 生成した文字配列
+     */
+    private char[] render(int depth) {
+
+        final char[] table = Arrays.copyOf(LINE_SEPARATOR.toCharArray(), this.lengthOf(depth));
+
+        for (int i = 0; i < depth; i++) {
+            this.indent.getChars(0, this.indent.length(), table, LINE_SEPARATOR.length() + i * this.indent.length());
+        }
+
+        return table;
+    }
+
+    /**
+     * 改行コードと引数として渡された {@code depth} の深さのインデントを連結した文字数を返却します。
+     *
+     * @param depth インデントの深さ
+     * @return 連結した文字数
+     */
+    private int lengthOf(int depth) {
+        return LINE_SEPARATOR.length() + depth * this.indent.length();
+    }
+}
\ No newline at end of file
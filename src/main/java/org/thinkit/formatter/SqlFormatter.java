@@ -14,10 +14,37 @@
 
 package org.thinkit.formatter;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
 import org.thinkit.formatter.catalog.dml.DmlStatement;
 import org.thinkit.formatter.common.Formatter;
 import org.thinkit.formatter.ddl.DdlFormatter;
 import org.thinkit.formatter.dml.DmlFormatter;
+import org.thinkit.formatter.dml.DmlShape;
+import org.thinkit.formatter.dml.DmlTemplate;
 
 import lombok.EqualsAndHashCode;
 import lombok.NonNull;
@@ -34,16 +61,41 @@ import lombok.ToString;
 @EqualsAndHashCode
 public class SqlFormatter implements Formatter {
 
+    /**
+     * 改行コード
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * スクリプトを並列に整形する際に1つのタスクで整形するクエリ数
+     */
+    private static final int SCRIPT_CHUNK_SIZE = 64;
+
+    /**
+     * ファイルへ出力する際に符号化したバイト列を保持するバッファのサイズ
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
     /**
      * インデント数
      */
     private int indent;
 
+    /**
+     * DMLフォーマッタ
+     */
+    private Formatter dmlFormatter;
+
+    /**
+     * DDLフォーマッタ
+     */
+    private Formatter ddlFormatter;
+
     /**
      * デフォルトコンストラクタ
      */
     private SqlFormatter() {
-        indent = -1;
+        this(-1);
     }
 
     /**
@@ -53,6 +105,8 @@ public class SqlFormatter implements Formatter {
      */
     private SqlFormatter(int indent) {
         this.indent = indent;
+        this.dmlFormatter = DmlFormatter.withIndent(indent);
+        this.ddlFormatter = DdlFormatter.withIndent(indent);
     }
 
     /**
@@ -76,6 +130,29 @@ public class SqlFormatter implements Formatter {
         return new SqlFormatter(indent);
     }
 
+    /**
+     * {@link SqlFormatter} クラスの新しいインスタンスを生成し、 {@link SqlFormatter} 型として返却します。
+     * <p>
+     * {@link #of()} メソッドは {@link Formatter} 型を返却するため、スクリプトやストリームを整形するメソッドを使用する場合はこのメソッドを使用します。
+     *
+     * @return {@link SqlFormatter} クラスの新しいインスタンス
+     */
+    public static SqlFormatter create() {
+        return new SqlFormatter();
+    }
+
+    /**
+     * 引数として指定されたインデント数に応じた {@link SqlFormatter} クラスの新しいインスタンスを生成し、 {@link SqlFormatter} 型として返却します。
+     *
+     * @param indent インデント数
+     * @return インデント数に応じた {@link SqlFormatter} クラスの新しいインスタンス
+     *
+     * @see #withIndent(int)
+     */
+    public static SqlFormatter create(int indent) {
+        return new SqlFormatter(indent);
+    }
+
     @Override
     public String format(@NonNull final String sql) {
 
@@ -83,14 +160,336 @@ public class SqlFormatter implements Formatter {
             return "";
         }
 
-        final String trimmedSql = sql.trim().toLowerCase();
+        if (isDml(sql)) {
+            return this.dmlFormatter.format(sql);
+        }
+
+        return this.ddlFormatter.format(sql);
+    }
+
+    /**
+     * 引数として渡された {@code sql} を整形し、文字列リテラルと数値リテラルを {@code ?} へ置き換えたクエリを返却します。
+     * <p>
+     * DMLクエリはリテラルをプレースホルダへ置き換えた {@link DmlShape} を1回整形し、その結果の {@link DmlTemplate}
+     * からリテラルを置き換えたクエリを生成します。同じテンプレートの {@link DmlTemplate#render(DmlShape)}
+     * メソッドを使用すると、元のリテラルを埋め戻したクエリも再度整形することなく得られます。 DDLクエリも同様に {@link DmlShape}
+     * を整形した結果のリテラルを置き換えるため、キーワードの大文字と小文字はDMLクエリと同じく記述されたまま出力されます。
+     * <p>
+     * 数値リテラルの符号は演算子として残るため、 {@code x = -17} は {@code x = -?} と出力されます。
+     *
+     * @param sql 整形対象のクエリ
+     * @return リテラルを {@code ?} へ置き換えた整形後のクエリ
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public String formatRedacted(@NonNull String sql) {
+
+        if (sql.isEmpty()) {
+            return "";
+        }
+
+        final Formatter formatter = isDml(sql) ? this.dmlFormatter : this.ddlFormatter;
+
+        return DmlTemplate.of(formatter.format(DmlShape.of(sql).getShape())).redact();
+    }
+
+    /**
+     * 引数として渡された {@code sql} がDMLクエリであるか判定します。
+     * <p>
+     * 先頭の空白は {@link String#trim()} メソッドと同じ規則で読み飛ばされますが、コメントは読み飛ばされません。
+     *
+     * @param sql 判定対象のクエリ
+     * @return {@code sql} がDMLクエリである場合は {@code true} 、それ以外は {@code false}
+     */
+    static boolean isDml(@NonNull String sql) {
+
+        int offset = 0;
+
+        while (offset < sql.length() && sql.charAt(offset) <= ' ') {
+            offset++;
+        }
+
+        return StatementClassifier.classify(sql, offset) instanceof DmlStatement;
+    }
+
+    /**
+     * 引数として渡された {@code reader} からSQLスクリプトを逐次読み込み、クエリ毎に整形した結果を {@code output} へ出力します。
+     * <p>
+     * SQLスクリプトは最上位の {@code ";"} を区切りとしてクエリ毎に分割され、各クエリはインデントを初期化した状態から整形されます。
+     * 整形したクエリは改行コードを付与して1件ずつ {@code output} へ出力されるため、スクリプト全体を文字列として保持することはありません。
+     * <p>
+     * ただし各クエリは {@link StatementReader} の読み込みバッファ、クエリの文字列及び整形結果としてそれぞれ保持されるため、
+     * 使用するメモリはスクリプトの大きさには依存しませんが、最も長いクエリの文字数に比例します。
+     * <p>
+     * {@code reader} と {@code output} はこのメソッドの中で閉じられません。
+     *
+     * @param reader SQLスクリプトの読み込み元
+     * @param output 整形結果の出力先
+     *
+     * @throws IOException          {@code reader} からの読み込み、または {@code output} への出力に失敗した場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     *
+     * @see StatementReader
+     */
+    public void format(@NonNull Reader reader, @NonNull Appendable output) throws IOException {
+
+        final StatementReader statementReader = StatementReader.of(reader);
+
+        String statement;
+        while ((statement = statementReader.read()) != null) {
+            output.append(this.format(statement)).append(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * 引数として渡された {@code input} のSQLスクリプトをUTF-8で読み込み、クエリ毎に整形した結果を {@code output} へUTF-8で出力します。
+     *
+     * @param input  SQLスクリプトのファイル
+     * @param output 整形結果の出力先のファイル
+     *
+     * @throws IOException          {@code input} からの読み込み、または {@code output} への出力に失敗した場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     *
+     * @see #formatFile(Path, Path, Charset)
+     */
+    public void formatFile(@NonNull Path input, @NonNull Path output) throws IOException {
+        this.formatFile(input, output, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 引数として渡された {@code input} のSQLスクリプトを {@code charset} で読み込み、クエリ毎に整形した結果を {@code output}
+     * へ {@code charset} で出力します。
+     * <p>
+     * {@code input} はメモリへ割り当てた領域から範囲毎に復号しながら読み込まれ、整形したクエリは再利用されるバッファで符号化して
+     * {@code output} のチャネルへ逐次書き込まれます。 そのため、ヒープに保持されるのは整形中の1つのクエリのみとなり、
+     * 使用するメモリ量はファイルの大きさではなく最も長いクエリの大きさに依存します。
+     * <p>
+     * {@code output} が既に存在する場合は内容が置き換えられます。整形結果は {@link #format(Reader, Appendable)} メソッドと同じです。
+     *
+     * @param input   SQLスクリプトのファイル
+     * @param output  整形結果の出力先のファイル
+     * @param charset {@code input} と {@code output} の文字コード
+     *
+     * @throws IOException              {@code input} からの読み込み、または {@code output} への出力に失敗した場合
+     * @throws IllegalArgumentException {@code input} と {@code output} が同じファイルを指す場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public void formatFile(@NonNull Path input, @NonNull Path output, @NonNull Charset charset) throws IOException {
+
+        if (Files.exists(output) && Files.isSameFile(input, output)) {
+            throw new IllegalArgumentException(
+                    String.format("The input file cannot be used as the output file: %s", output));
+        }
+
+        try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+                FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                Reader reader = MappedFileReader.of(inputChannel, charset);
+                Writer writer = Channels.newWriter(outputChannel, charset.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE),
+                        OUTPUT_BUFFER_SIZE)) {
+            this.format(reader, writer);
+        }
+    }
+
+    /**
+     * 引数として渡された {@code script} をクエリ毎に分割し、 {@link ForkJoinPool#commonPool()} を使用して並列に整形します。
+     *
+     * @param script 整形対象のSQLスクリプト
+     * @return 整形されたSQLスクリプト
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     *
+     * @see #formatScript(String, Executor)
+     */
+    public String formatScript(@NonNull String script) {
+        return this.formatScript(script, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 引数として渡された {@code script} をクエリ毎に分割し、 {@code executor} を使用して並列に整形します。
+     * <p>
+     * SQLスクリプトは {@link StatementReader} と同様に最上位の {@code ";"} を区切りとして分割され、各クエリは
+     * {@link #format(String)} メソッドでDMLとDDLのどちらであるかを判定した上で個別に整形されます。
+     * 整形したクエリは元のスクリプトでの出現順に改行コードを付与して連結されるため、 {@link #format(Reader, Appendable)}
+     * メソッドと同じ結果を返却します。
+     *
+     * @param script   整形対象のSQLスクリプト
+     * @param executor 整形処理を実行するエグゼキューター
+     * @return 整形されたSQLスクリプト
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public String formatScript(@NonNull String script, @NonNull Executor executor) {
+
+        final List<String> statements = this.split(script);
+        final String[] formattedStatements = this.formatEach(statements, executor);
+
+        final StringBuilder formattedScript = new StringBuilder(script.length());
+
+        for (String formattedStatement : formattedStatements) {
+            formattedScript.append(formattedStatement).append(LINE_SEPARATOR);
+        }
+
+        return formattedScript.toString();
+    }
+
+    /**
+     * 引数として渡された {@code statements} をそれぞれ整形し、入力と同じ順序で整形結果のリストを返却します。
+     * <p>
+     * 同じ文字列のクエリが複数含まれる場合は1度のみ整形され、整形結果が共有されます。整形は呼び出し元のスレッドで行われます。
+     *
+     * @param statements 整形対象のクエリのリスト
+     * @return 整形結果のリスト。変更することはできません。
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合、または {@code statements} に
+     *                                 {@code null} が含まれる場合
+     *
+     * @see #formatAll(List, Executor)
+     */
+    public List<String> formatAll(@NonNull List<String> statements) {
+        return this.formatAll(statements, null);
+    }
+
+    /**
+     * 引数として渡された {@code statements} をそれぞれ {@code executor} を使用して並列に整形し、入力と同じ順序で整形結果のリストを返却します。
+     * <p>
+     * 同じ文字列のクエリが複数含まれる場合は1度のみ整形され、整形結果が共有されます。重複を除いたクエリは一定数毎のタスクに分割して
+     * {@code executor} へ渡されます。 {@code executor} に {@code null} が渡された場合は呼び出し元のスレッドで整形されます。
+     *
+     * @param statements 整形対象のクエリのリスト
+     * @param executor   整形処理を実行するエグゼキューター。呼び出し元のスレッドで整形する場合は {@code null}
+     * @return 整形結果のリスト。変更することはできません。
+     *
+     * @exception NullPointerException {@code statements} に {@code null} が渡された場合、または {@code statements} に
+     *                                 {@code null} が含まれる場合
+     */
+    public List<String> formatAll(@NonNull List<String> statements, Executor executor) {
+
+        final Map<String, Integer> distinctIndexes = new HashMap<>(statements.size() * 2);
+        final List<String> distinctStatements = new ArrayList<>(statements.size());
+        final int[] indexes = new int[statements.size()];
+
+        for (int i = 0; i < indexes.length; i++) {
+
+            final String statement = statements.get(i);
+
+            if (statement == null) {
+                throw new NullPointerException(String.format("statements[%d] is null", i));
+            }
+
+            final Integer index = distinctIndexes.putIfAbsent(statement, distinctStatements.size());
+
+            if (index == null) {
+                indexes[i] = distinctStatements.size();
+                distinctStatements.add(statement);
+            } else {
+                indexes[i] = index;
+            }
+        }
+
+        final String[] formattedStatements = this.formatEach(distinctStatements, executor);
+        final String[] results = new String[indexes.length];
+
+        for (int i = 0; i < indexes.length; i++) {
+            results[i] = formattedStatements[indexes[i]];
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * 引数として渡された {@code statements} の各要素を整形した結果を順に返却するストリームを返却します。
+     * <p>
+     * 整形は返却されたストリームの終端操作で要素毎に行われます。同じ文字列のクエリの整形結果はストリーム毎に生成される
+     * {@link CachingSqlFormatter} で再利用されます。保持される整形結果は既定の設定の {@link CachingSqlFormatter} と同じく最大1024件かつクエリと整形結果の合計4M文字までで、
+     * 上限を超えた場合は最も長く参照されていない整形結果から破棄されるため、終わりのないストリームを渡しても使用するメモリは増え続けません。
+     * {@code statements} が並列ストリームの場合は並列に整形されます。
+     *
+     * @param statements 整形対象のクエリのストリーム
+     * @return 整形結果のストリーム
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合、またはストリームの要素に {@code null}
+     *                                 が含まれる場合
+     */
+    public Stream<String> formatAll(@NonNull Stream<String> statements) {
+
+        final Formatter formatter = CachingSqlFormatter.builder().withIndent(this.indent).build();
+
+        return statements.map(formatter::format);
+    }
+
+    /**
+     * 引数として渡された {@code statements} をそれぞれ整形し、入力と同じ順序で整形結果の配列を返却します。
+     * <p>
+     * {@code executor} が渡された場合は一定数毎のタスクに分割して並列に整形し、 {@code null} の場合は呼び出し元のスレッドで整形します。
+     *
+     * @param statements 整形対象のクエリのリスト
+     * @param executor   整形処理を実行するエグゼキューター
+     * @return 整形結果の配列
+     *
+     * @exception NullPointerException {@code statements} に {@code null} が渡された場合
+     */
+    private String[] formatEach(@NonNull List<String> statements, Executor executor) {
+
+        final String[] formattedStatements = new String[statements.size()];
+
+        if (executor == null) {
+            for (int i = 0; i < formattedStatements.length; i++) {
+                formattedStatements[i] = this.format(statements.get(i));
+            }
+
+            return formattedStatements;
+        }
+
+        final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+
+        for (int from = 0; from < statements.size(); from += SCRIPT_CHUNK_SIZE) {
+
+            final int start = from;
+            final int end = Math.min(statements.size(), from + SCRIPT_CHUNK_SIZE);
+
+            tasks.add(CompletableFuture.runAsync(() -> {
+                for (int i = start; i < end; i++) {
+                    formattedStatements[i] = this.format(statements.get(i));
+                }
+            }, executor));
+        }
+
+        try {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+
+        return formattedStatements;
+    }
+
+    /**
+     * 引数として渡された {@code script} を最上位の {@code ";"} を区切りとしてクエリ毎に分割します。
+     *
+     * @param script SQLスクリプト
+     * @return 分割されたクエリのリスト
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private List<String> split(@NonNull String script) {
+
+        final List<String> statements = new ArrayList<>();
 
-        if (trimmedSql.startsWith(DmlStatement.SELECT.getTag()) || trimmedSql.startsWith(DmlStatement.INSERT.getTag())
-                || trimmedSql.startsWith(DmlStatement.UPDATE.getTag())
-                || trimmedSql.startsWith(DmlStatement.DELETE.getTag())) {
-            return DmlFormatter.withIndent(this.indent).format(sql);
+        try (StatementReader reader = StatementReader.of(new StringReader(script))) {
+            String statement;
+            while ((statement = reader.read()) != null) {
+                statements.add(statement);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
-        return DdlFormatter.withIndent(this.indent).format(sql);
+        return statements;
     }
 }
\ No newline at end of file
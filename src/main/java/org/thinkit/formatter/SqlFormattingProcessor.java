@@ -0,0 +1,566 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.thinkit.common.exception.IllegalNumberFoundException;
+import org.thinkit.formatter.common.Formatter;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * 上流から受け取ったクエリを整形し、下流の要求数に応じて整形結果を発行するプロセッサクラスです。
+ * <p>
+ * 上流へは整形中と発行待ちのクエリの合計が {@link Builder#withWindow(int)} メソッドで設定した件数を超えないように要求するため、
+ * 下流の処理が遅い場合もプロセッサが保持するクエリ数には上限があります。 上流への要求は発行した件数がウィンドウの4分の3に達する毎にまとめて補充されます。
+ * <p>
+ * {@link Builder#withExecutor(Executor)} メソッドでエグゼキューターを設定した場合はウィンドウの範囲で複数のクエリを並列に整形します。
+ * 整形結果は整形の完了順に関わらず上流から受け取った順序で発行されます。 エグゼキューターを設定しない場合は上流の {@code onNext} を呼び出したスレッドで整形します。
+ * <p>
+ * 整形に失敗した場合は上流の購読を取り消し、発生した例外を下流へ通知します。 購読できる下流は1つのみです。
+ *
+ * <pre>
+ * SqlScriptPublisher.of(script)
+ *         .subscribe(SqlFormattingProcessor.builder().withExecutor(executor).withWindow(64).build());
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class SqlFormattingProcessor implements Flow.Processor<String, String> {
+
+    /**
+     * 整形処理を委譲するフォーマッタ
+     */
+    private Formatter formatter;
+
+    /**
+     * 整形を実行するエグゼキューター。上流のスレッドで整形する場合は {@code null}
+     */
+    @ToString.Exclude
+    private Executor executor;
+
+    /**
+     * 整形中と発行待ちのクエリの最大数
+     */
+    private int window;
+
+    /**
+     * 上流への要求を補充する発行件数
+     */
+    private int replenishment;
+
+    /**
+     * 上流から受け取った順に並んだ整形結果
+     */
+    @ToString.Exclude
+    private Queue<CompletableFuture<String>> pending;
+
+    /**
+     * 下流の発行していない要求数
+     */
+    @ToString.Exclude
+    private AtomicLong requested;
+
+    /**
+     * {@link #drain()} メソッドの実行が要求された回数
+     */
+    @ToString.Exclude
+    private AtomicInteger wip;
+
+    /**
+     * 上流の購読
+     */
+    @ToString.Exclude
+    private volatile Flow.Subscription upstream;
+
+    /**
+     * 下流の購読者
+     */
+    @ToString.Exclude
+    private volatile Flow.Subscriber<? super String> downstream;
+
+    /**
+     * 上流の終了の有無
+     */
+    private volatile boolean done;
+
+    /**
+     * 上流から通知された例外
+     */
+    @ToString.Exclude
+    private volatile Throwable error;
+
+    /**
+     * 下流による取り消しの有無
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * 下流から渡された不正な要求数。渡されていない場合は {@code null}
+     */
+    private volatile Long invalidRequest;
+
+    /**
+     * 下流の {@code onSubscribe} の呼び出しの有無
+     */
+    private boolean subscribed;
+
+    /**
+     * 上流へ最初の要求を送信したかの可否
+     */
+    private boolean prefetched;
+
+    /**
+     * 前回上流への要求を補充してから発行した件数
+     */
+    private int consumed;
+
+    /**
+     * 下流への終了の通知の有無
+     */
+    private boolean terminated;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private SqlFormattingProcessor() {
+    }
+
+    /**
+     * 引数として渡された {@code formatter} で上流のスレッドから整形する {@link SqlFormattingProcessor} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param formatter 整形処理を委譲するフォーマッタ
+     * @return {@link SqlFormattingProcessor} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static SqlFormattingProcessor of(@NonNull Formatter formatter) {
+        return builder().withFormatter(formatter).build();
+    }
+
+    /**
+     * {@link SqlFormattingProcessor} クラスのインスタンスを生成する {@link Builder} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @return {@link Builder} クラスの新しいインスタンス
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * {@link SqlFormattingProcessor} クラスのインスタンスを生成する処理を定義したビルダークラスです。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    public static class Builder {
+
+        /**
+         * インデント数
+         */
+        private int indent = -1;
+
+        /**
+         * 整形処理を委譲するフォーマッタ
+         */
+        private Formatter formatter;
+
+        /**
+         * 整形を実行するエグゼキューター
+         */
+        private Executor executor;
+
+        /**
+         * 整形中と発行待ちのクエリの最大数
+         */
+        private int window = 32;
+
+        /**
+         * デフォルトコンストラクタ
+         */
+        private Builder() {
+        }
+
+        /**
+         * インデント数を設定します。 {@link #withFormatter(Formatter)} メソッドでフォーマッタが設定された場合は使用されません。
+         * <p>
+         * 負数が設定された場合はコンテンツに定義された既定のインデント数が使用されます。
+         *
+         * @param indent インデント数
+         * @return 自分自身のインスタンス
+         */
+        public Builder withIndent(int indent) {
+            this.indent = indent;
+            return this;
+        }
+
+        /**
+         * 整形処理を委譲するフォーマッタを設定します。エグゼキューターを設定する場合はスレッドセーフである必要があります。
+         * <p>
+         * 設定されない場合は {@link SqlFormatter} クラスが使用されます。
+         *
+         * @param formatter 整形処理を委譲するフォーマッタ
+         * @return 自分自身のインスタンス
+         *
+         * @exception NullPointerException 引数として {@code null} が渡された場合
+         */
+        public Builder withFormatter(@NonNull Formatter formatter) {
+            this.formatter = formatter;
+            return this;
+        }
+
+        /**
+         * 整形を実行するエグゼキューターを設定します。
+         * <p>
+         * 設定されない場合は上流の {@code onNext} を呼び出したスレッドで整形します。
+         *
+         * @param executor 整形を実行するエグゼキューター
+         * @return 自分自身のインスタンス
+         *
+         * @exception NullPointerException 引数として {@code null} が渡された場合
+         */
+        public Builder withExecutor(@NonNull Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 整形中と発行待ちのクエリの最大数を設定します。
+         *
+         * @param window 整形中と発行待ちのクエリの最大数
+         * @return 自分自身のインスタンス
+         *
+         * @throws IllegalNumberFoundException 引数として渡された {@code window} が1未満の場合
+         */
+        public Builder withWindow(int window) {
+
+            if (window < 1) {
+                throw new IllegalNumberFoundException(
+                        String.format("Number must be greater than 0 but %s was given", window));
+            }
+
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * 設定された値を基に {@link SqlFormattingProcessor} クラスの新しいインスタンスを生成し返却します。
+         *
+         * @return {@link SqlFormattingProcessor} クラスの新しいインスタンス
+         */
+        public SqlFormattingProcessor build() {
+
+            final SqlFormattingProcessor processor = new SqlFormattingProcessor();
+            processor.formatter = this.formatter != null ? this.formatter : SqlFormatter.withIndent(this.indent);
+            processor.executor = this.executor;
+            processor.window = this.window;
+            processor.replenishment = this.window - (this.window >> 2);
+            processor.pending = new ConcurrentLinkedQueue<>();
+            processor.requested = new AtomicLong();
+            processor.wip = new AtomicInteger();
+
+            return processor;
+        }
+    }
+
+    @Override
+    public void subscribe(@NonNull Flow.Subscriber<? super String> subscriber) {
+
+        synchronized (this) {
+            if (this.downstream == null) {
+                this.downstream = subscriber;
+                subscriber = null;
+            }
+        }
+
+        if (subscriber != null) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+
+                @Override
+                public void request(long n) {
+                    // already rejected
+                }
+
+                @Override
+                public void cancel() {
+                    // already rejected
+                }
+            });
+            subscriber.onError(new IllegalStateException("SqlFormattingProcessor allows only a single subscriber"));
+            return;
+        }
+
+        this.drain();
+    }
+
+    @Override
+    public void onSubscribe(@NonNull Flow.Subscription subscription) {
+
+        synchronized (this) {
+            if (this.upstream == null) {
+                this.upstream = subscription;
+                subscription = null;
+            }
+        }
+
+        if (subscription != null) {
+            subscription.cancel();
+            return;
+        }
+
+        if (this.cancelled) {
+            // cancelled by the downstream before the upstream arrived
+            this.upstream.cancel();
+            return;
+        }
+
+        this.drain();
+    }
+
+    @Override
+    public void onNext(@NonNull String sql) {
+
+        if (this.done || this.cancelled) {
+            return;
+        }
+
+        final CompletableFuture<String> formattedSql = new CompletableFuture<>();
+        this.pending.offer(formattedSql);
+
+        if (this.executor == null) {
+            this.format(sql, formattedSql);
+        } else {
+            try {
+                this.executor.execute(() -> {
+                    this.format(sql, formattedSql);
+                    this.drain();
+                });
+            } catch (RejectedExecutionException e) {
+                formattedSql.completeExceptionally(e);
+            }
+        }
+
+        this.drain();
+    }
+
+    /**
+     * 引数として渡された {@code sql} を整形し、整形結果で {@code formattedSql} を完了させます。
+     *
+     * @param sql          整形対象のクエリ
+     * @param formattedSql 整形結果で完了させる {@link CompletableFuture}
+     */
+    private void format(String sql, CompletableFuture<String> formattedSql) {
+        try {
+            formattedSql.complete(this.formatter.format(sql));
+        } catch (RuntimeException e) {
+            formattedSql.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void onError(@NonNull Throwable throwable) {
+        this.error = throwable;
+        this.done = true;
+        this.drain();
+    }
+
+    @Override
+    public void onComplete() {
+        this.done = true;
+        this.drain();
+    }
+
+    /**
+     * 下流の要求数の範囲で、上流から受け取った順に整形が完了したクエリを発行します。
+     * <p>
+     * 上流と下流からの通知及び整形の完了はこのメソッドで直列化され、同時に複数のスレッドから下流へ通知されることはありません。
+     */
+    private void drain() {
+
+        if (this.wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+
+        do {
+            final Flow.Subscriber<? super String> subscriber = this.downstream;
+            final Flow.Subscription subscription = this.upstream;
+
+            if (subscriber != null && !this.terminated) {
+
+                if (!this.subscribed) {
+                    this.subscribed = true;
+                    subscriber.onSubscribe(new DownstreamSubscription());
+                }
+
+                if (!this.prefetched && subscription != null && !this.cancelled) {
+                    this.prefetched = true;
+                    subscription.request(this.window);
+                }
+
+                this.emit(subscriber, subscription);
+            }
+
+            missed = this.wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * 下流の要求数の範囲で整形が完了したクエリを発行し、発行した件数に応じて上流への要求を補充します。
+     * 取り消された場合、整形に失敗した場合、または上流が終了した場合は下流へ終了を通知します。
+     *
+     * @param subscriber   下流の購読者
+     * @param subscription 上流の購読
+     */
+    private void emit(Flow.Subscriber<? super String> subscriber, Flow.Subscription subscription) {
+
+        if (this.cancelled) {
+            this.terminated = true;
+            this.pending.clear();
+            return;
+        }
+
+        if (this.invalidRequest != null) {
+            this.fail(subscriber, subscription, new IllegalArgumentException(String.format(
+                    "The number of requested elements must be positive but %d was given", this.invalidRequest)));
+            return;
+        }
+
+        final Throwable upstreamError = this.error;
+
+        if (upstreamError != null) {
+            this.fail(subscriber, null, upstreamError);
+            return;
+        }
+
+        final long requested = this.requested.get();
+        long emitted = 0;
+
+        while (true) {
+
+            final CompletableFuture<String> head = this.pending.peek();
+
+            if (head == null || !head.isDone()) {
+                break;
+            }
+
+            if (head.isCompletedExceptionally()) {
+                try {
+                    head.join();
+                } catch (CompletionException e) {
+                    this.fail(subscriber, subscription, e.getCause());
+                }
+
+                return;
+            }
+
+            if (emitted == requested || this.cancelled) {
+                break;
+            }
+
+            this.pending.poll();
+            subscriber.onNext(head.join());
+            emitted++;
+
+            if (++this.consumed == this.replenishment) {
+                this.consumed = 0;
+                subscription.request(this.replenishment);
+            }
+        }
+
+        if (emitted != 0 && requested != Long.MAX_VALUE) {
+            this.requested.addAndGet(-emitted);
+        }
+
+        if (this.done && this.pending.isEmpty() && !this.cancelled) {
+            this.terminated = true;
+            subscriber.onComplete();
+        }
+    }
+
+    /**
+     * 上流の購読を取り消した上で、下流へ {@code throwable} を通知して終了します。
+     *
+     * @param subscriber   下流の購読者
+     * @param subscription 上流の購読。上流が既に終了している場合は {@code null}
+     * @param throwable    通知する例外
+     */
+    private void fail(Flow.Subscriber<? super String> subscriber, Flow.Subscription subscription,
+            Throwable throwable) {
+
+        this.terminated = true;
+        this.cancelled = true;
+        this.pending.clear();
+
+        if (subscription != null && !this.done) {
+            subscription.cancel();
+        }
+
+        subscriber.onError(throwable);
+    }
+
+    /**
+     * 下流の購読者へ渡す購読です。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    private final class DownstreamSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+
+            if (n <= 0) {
+                invalidRequest = n;
+            } else {
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+
+            if (!cancelled) {
+                cancelled = true;
+
+                final Flow.Subscription subscription = upstream;
+
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+            }
+
+            drain();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * SQLスクリプトのファイルからクエリを1件ずつ読み込み、購読者の要求数に応じて発行するパブリッシャークラスです。
+ * <p>
+ * ファイルは購読者毎に最初の要求を受け取った時点で開かれ、 {@link StatementReader} で最上位の {@code ";"} を区切りとして分割されます。
+ * クエリは要求された件数だけ読み込まれるため、ヒープに保持されるのは読み込み中の1つのクエリのみとなり、大きなスクリプトでも全体をメモリへ読み込むことはありません。
+ * <p>
+ * クエリは {@link Flow.Subscription#request(long)} メソッドを呼び出したスレッドで読み込まれ発行されます。 全てのクエリを発行した場合、
+ * 購読が取り消された場合、または読み込みに失敗した場合はファイルを閉じます。
+ *
+ * <pre>
+ * SqlScriptPublisher.of(script).subscribe(SqlFormattingProcessor.of(SqlFormatter.of()));
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class SqlScriptPublisher implements Flow.Publisher<String> {
+
+    /**
+     * SQLスクリプトのファイル
+     */
+    private Path script;
+
+    /**
+     * SQLスクリプトの文字コード
+     */
+    private Charset charset;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private SqlScriptPublisher() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param script  SQLスクリプトのファイル
+     * @param charset SQLスクリプトの文字コード
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private SqlScriptPublisher(@NonNull Path script, @NonNull Charset charset) {
+        this.script = script;
+        this.charset = charset;
+    }
+
+    /**
+     * 引数として渡された {@code script} のクエリをUTF-8で読み込んで発行する {@link SqlScriptPublisher} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param script SQLスクリプトのファイル
+     * @return {@link SqlScriptPublisher} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static SqlScriptPublisher of(@NonNull Path script) {
+        return new SqlScriptPublisher(script, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 引数として渡された {@code script} のクエリを {@code charset} で読み込んで発行する {@link SqlScriptPublisher}
+     * クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param script  SQLスクリプトのファイル
+     * @param charset SQLスクリプトの文字コード
+     * @return {@link SqlScriptPublisher} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static SqlScriptPublisher of(@NonNull Path script, @NonNull Charset charset) {
+        return new SqlScriptPublisher(script, charset);
+    }
+
+    @Override
+    public void subscribe(@NonNull Flow.Subscriber<? super String> subscriber) {
+        subscriber.onSubscribe(new ScriptSubscription(subscriber));
+    }
+
+    /**
+     * 1人の購読者へSQLスクリプトのクエリを発行する購読です。
+     * <p>
+     * 要求、取り消し及び発行は {@link #drain()} メソッドで直列化されるため、購読者の {@code onNext} から再帰的に要求された場合もスタックは深くなりません。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    private final class ScriptSubscription implements Flow.Subscription {
+
+        /**
+         * 購読者
+         */
+        private final Flow.Subscriber<? super String> subscriber;
+
+        /**
+         * 発行していない要求数
+         */
+        private final AtomicLong requested = new AtomicLong();
+
+        /**
+         * {@link #drain()} メソッドの実行が要求された回数
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        /**
+         * 取り消しの有無
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * 不正な要求数が渡された場合の要求数。渡されていない場合は {@code null}
+         */
+        private volatile Long invalidRequest;
+
+        /**
+         * クエリのリーダー。ファイルを開く前は {@code null}
+         */
+        private StatementReader reader;
+
+        /**
+         * 終了の有無
+         */
+        private boolean done;
+
+        /**
+         * コンストラクタ
+         *
+         * @param subscriber 購読者
+         */
+        private ScriptSubscription(Flow.Subscriber<? super String> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+
+            if (n <= 0) {
+                this.invalidRequest = n;
+            } else {
+                this.requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+
+            this.drain();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            this.drain();
+        }
+
+        /**
+         * 要求された件数のクエリを読み込んで発行します。取り消された場合、または不正な要求数が渡された場合はファイルを閉じて終了します。
+         */
+        private void drain() {
+
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+
+            do {
+                if (!this.done) {
+                    if (this.cancelled) {
+                        this.terminate();
+                    } else if (this.invalidRequest != null) {
+                        this.terminate();
+                        this.subscriber.onError(new IllegalArgumentException(
+                                String.format("The number of requested elements must be positive but %d was given",
+                                        this.invalidRequest)));
+                    } else {
+                        this.emit();
+                    }
+                }
+
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * 発行していない要求数の範囲でクエリを読み込み、購読者へ発行します。
+         */
+        private void emit() {
+
+            final long requested = this.requested.get();
+            long emitted = 0;
+
+            try {
+                if (this.reader == null && requested > 0) {
+                    this.reader = this.open();
+                }
+
+                while (emitted != requested && !this.cancelled) {
+
+                    final String statement = this.reader.read();
+
+                    if (statement == null) {
+                        this.terminate();
+                        this.subscriber.onComplete();
+                        return;
+                    }
+
+                    this.subscriber.onNext(statement);
+                    emitted++;
+                }
+            } catch (IOException e) {
+                this.terminate();
+                this.subscriber.onError(e);
+                return;
+            }
+
+            if (emitted != 0 && requested != Long.MAX_VALUE) {
+                this.requested.addAndGet(-emitted);
+            }
+        }
+
+        /**
+         * SQLスクリプトのファイルをメモリへ割り当てて開き、クエリのリーダーを返却します。
+         *
+         * @return クエリのリーダー
+         *
+         * @throws IOException ファイルを開けなかった場合
+         */
+        private StatementReader open() throws IOException {
+
+            final FileChannel channel = FileChannel.open(script, StandardOpenOption.READ);
+
+            try {
+                return StatementReader.of(MappedFileReader.of(channel, charset));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * 購読を終了し、ファイルを開いている場合は閉じます。閉じる際に発生した例外は無視されます。
+         */
+        private void terminate() {
+
+            this.done = true;
+
+            if (this.reader != null) {
+                try {
+                    this.reader.close();
+                } catch (IOException e) {
+                    // nothing more will be read from the script
+                }
+
+                this.reader = null;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.thinkit.api.catalog.BiCatalog;
+import org.thinkit.formatter.catalog.KeywordTable;
+import org.thinkit.formatter.catalog.ddl.DdlStatement;
+import org.thinkit.formatter.catalog.dml.DmlStatement;
+
+import lombok.NonNull;
+
+/**
+ * クエリの先頭にあるキーワードからクエリの種別を判定する分類クラスです。
+ * <p>
+ * キーワードは元の文字列上で大文字と小文字を区別せずに比較されるため、クエリ全体を小文字へ変換した文字列は生成されません。
+ * 判定に必要な先頭の数文字のみを参照するため、クエリの大きさに関わらず一定の時間で判定が完了します。
+ * <p>
+ * キーワードは {@link DmlStatement} と {@link DdlStatement} に定義されたタグと前方一致で比較されます。
+ * タグに含まれる空白は半角空白1文字とのみ一致します。
+ *
+ * <pre>
+ * final BiCatalog&lt;?, String&gt; statement = StatementClassifier.classify(sql);
+ *
+ * if (statement == DmlStatement.SELECT) {
+ *     // do something
+ * }
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+public final class StatementClassifier {
+
+    /**
+     * 判定対象の種別。タグの長い順に並べられます。
+     */
+    private static final List<BiCatalog<?, String>> STATEMENTS = createStatements();
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private StatementClassifier() {
+    }
+
+    /**
+     * 判定対象の種別をタグの長い順に並べたリストを生成し返却します。
+     *
+     * @return 判定対象の種別
+     */
+    private static List<BiCatalog<?, String>> createStatements() {
+
+        final List<BiCatalog<?, String>> statements = new ArrayList<>();
+        statements.addAll(Arrays.asList(DmlStatement.values()));
+        statements.addAll(Arrays.asList(DdlStatement.values()));
+        statements.sort(Comparator.comparingInt((BiCatalog<?, String> statement) -> statement.getTag().length())
+                .reversed());
+
+        return statements;
+    }
+
+    /**
+     * 引数として渡された {@code sql} の種別を返却します。
+     * <p>
+     * 先頭にある空白、行コメント {@code --} 及びブロックコメント {@code /* *}{@code /} は読み飛ばされます。
+     *
+     * @param sql 判定対象のクエリ
+     * @return {@code sql} の種別を表す {@link DmlStatement} または {@link DdlStatement} の要素。種別を判定できない場合は
+     *         {@code null}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static BiCatalog<?, String> classify(@NonNull CharSequence sql) {
+
+        final int offset = skipWhitespacesAndComments(sql);
+
+        return offset < 0 ? null : classify(sql, offset);
+    }
+
+    /**
+     * 引数として渡された {@code sql} の {@code offset} の位置から始まるキーワードを基にクエリの種別を返却します。
+     * <p>
+     * {@code offset} の位置にある空白とコメントは読み飛ばされません。
+     *
+     * @param sql    判定対象のクエリ
+     * @param offset キーワードの開始位置
+     * @return {@code sql} の種別を表す {@link DmlStatement} または {@link DdlStatement} の要素。種別を判定できない場合は
+     *         {@code null}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static BiCatalog<?, String> classify(@NonNull CharSequence sql, int offset) {
+
+        for (BiCatalog<?, String> statement : STATEMENTS) {
+
+            final String tag = statement.getTag();
+            final int end = offset + tag.length();
+
+            if (end <= sql.length() && KeywordTable.matches(tag, sql, offset, end)) {
+                return statement;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 引数として渡された {@code sql} の先頭にある空白とコメントを読み飛ばした位置を返却します。
+     *
+     * @param sql 判定対象のクエリ
+     * @return 空白とコメントを読み飛ばした位置。ブロックコメントが終了していない場合は {@code -1}
+     */
+    private static int skipWhitespacesAndComments(CharSequence sql) {
+
+        final int length = sql.length();
+        int position = 0;
+
+        while (position < length) {
+
+            final char character = sql.charAt(position);
+
+            if (character <= ' ' || Character.isWhitespace(character)) {
+                position++;
+            } else if (character == '-' && position + 1 < length && sql.charAt(position + 1) == '-') {
+                position += 2;
+
+                while (position < length && sql.charAt(position) != '\n' && sql.charAt(position) != '\r') {
+                    position++;
+                }
+            } else if (character == '/' && position + 1 < length && sql.charAt(position + 1) == '*') {
+                position += 2;
+
+                while (position + 1 < length && !(sql.charAt(position) == '*' && sql.charAt(position + 1) == '/')) {
+                    position++;
+                }
+
+                if (position + 1 >= length) {
+                    return -1;
+                }
+
+                position += 2;
+            } else {
+                break;
+            }
+        }
+
+        return position;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * SQLスクリプトを {@link Reader} から逐次読み込み、最上位の {@code ";"} を区切りとしてクエリ毎に分割するリーダークラスです。
+ * <p>
+ * 引用符 {@code '} 、 {@code "} 、 {@code `} 及び角括弧 {@code []} で囲まれた範囲、 括弧 {@code ()} の内側、
+ * 行コメント {@code --} とブロックコメント {@code /* *}{@code /} の内側にある {@code ";"} は区切りとして扱いません。
+ * <p>
+ * 読み込んだ文字は1つのクエリ分のみ保持されるため、使用するメモリ量はスクリプト全体の大きさではなく最も長いクエリの大きさに依存します。
+ *
+ * <pre>
+ * try (StatementReader reader = StatementReader.of(new FileReader(file))) {
+ *     String statement;
+ *     while ((statement = reader.read()) != null) {
+ *         // do something
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class StatementReader implements Closeable {
+
+    /**
+     * 読み込みバッファのサイズ
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 引用符の外側にある状態
+     */
+    private static final int NORMAL = 0;
+
+    /**
+     * 行コメントの内側にある状態
+     */
+    private static final int LINE_COMMENT = 1;
+
+    /**
+     * ブロックコメントの内側にある状態
+     */
+    private static final int BLOCK_COMMENT = 2;
+
+    /**
+     * 引用符の内側にある状態
+     */
+    private static final int QUOTE = 3;
+
+    /**
+     * 読み込み元
+     */
+    private Reader reader;
+
+    /**
+     * 読み込みバッファ
+     */
+    @ToString.Exclude
+    private char[] buffer;
+
+    /**
+     * 読み込みバッファ内の次に処理する位置
+     */
+    private int position;
+
+    /**
+     * 読み込みバッファ内の有効な文字数
+     */
+    private int limit;
+
+    /**
+     * 読み込み中のクエリ
+     */
+    @ToString.Exclude
+    private StringBuilder statement;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private StatementReader() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param reader 読み込み元
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private StatementReader(@NonNull Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.statement = new StringBuilder();
+    }
+
+    /**
+     * 引数として渡された {@code reader} からクエリを読み込む {@link StatementReader} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param reader 読み込み元
+     * @return {@link StatementReader} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static StatementReader of(@NonNull Reader reader) {
+        return new StatementReader(reader);
+    }
+
+    /**
+     * 次のクエリを読み込み返却します。
+     * <p>
+     * 返却されるクエリは区切りとなった {@code ";"} を含み、先頭の空白は除去されます。 最後のクエリが {@code ";"}
+     * で終了していない場合は読み込み元の終端までを1つのクエリとして返却します。
+     *
+     * @return 次のクエリ。読み込み元の終端に達した場合は {@code null}
+     *
+     * @throws IOException 読み込み元からの読み込みに失敗した場合
+     */
+    public String read() throws IOException {
+
+        this.statement.setLength(0);
+
+        int state = NORMAL;
+        int depth = 0;
+        char closeSymbol = 0;
+        char previous = 0;
+
+        while (this.fill()) {
+
+            final char character = this.buffer[this.position++];
+
+            if (this.statement.length() == 0 && Character.isWhitespace(character)) {
+                continue;
+            }
+
+            this.statement.append(character);
+
+            switch (state) {
+                case LINE_COMMENT:
+                    if (character == '\n' || character == '\r') {
+                        state = NORMAL;
+                    }
+                    break;
+
+                case BLOCK_COMMENT:
+                    if (character == '/' && previous == '*') {
+                        state = NORMAL;
+                        previous = 0;
+                        continue;
+                    }
+                    break;
+
+                case QUOTE:
+                    if (character == closeSymbol) {
+                        state = NORMAL;
+                    }
+                    break;
+
+                default:
+                    if (character == '-' && previous == '-') {
+                        state = LINE_COMMENT;
+                    } else if (character == '*' && previous == '/') {
+                        state = BLOCK_COMMENT;
+                        previous = 0;
+                        continue;
+                    } else if (character == '(') {
+                        depth++;
+                    } else if (character == ')') {
+                        depth--;
+                    } else if (character == ';' && depth <= 0) {
+                        return this.statement.toString();
+                    } else {
+                        closeSymbol = getCloseSymbol(character);
+
+                        if (closeSymbol != 0) {
+                            state = QUOTE;
+                        }
+                    }
+                    break;
+            }
+
+            previous = character;
+        }
+
+        return this.statement.length() > 0 ? this.statement.toString() : null;
+    }
+
+    /**
+     * 読み込みバッファに未処理の文字が存在しない場合は読み込み元から次の文字列を読み込みます。
+     *
+     * @return 未処理の文字が存在する場合は {@code true} 、読み込み元の終端に達した場合は {@code false}
+     *
+     * @throws IOException 読み込み元からの読み込みに失敗した場合
+     */
+    private boolean fill() throws IOException {
+
+        while (this.position >= this.limit) {
+
+            final int size = this.reader.read(this.buffer, 0, this.buffer.length);
+
+            if (size < 0) {
+                return false;
+            }
+
+            this.position = 0;
+            this.limit = size;
+        }
+
+        return true;
+    }
+
+    /**
+     * 引数として渡された {@code character} から始まる引用符の終了記号を返却します。
+     *
+     * @param character 開始記号
+     * @return {@code character} に対応する終了記号。 {@code character} が引用符の開始記号ではない場合は {@code 0}
+     */
+    private static char getCloseSymbol(char character) {
+        switch (character) {
+            case '\'':
+            case '"':
+            case '`':
+                return character;
+            case '[':
+                return ']';
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
\ No newline at end of file
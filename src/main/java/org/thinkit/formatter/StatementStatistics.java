@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package org.thinkit.formatter;
+
+import org.thinkit.formatter.dml.DmlFingerprint;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * {@link StatisticsSqlFormatter} クラスが {@link DmlFingerprint} 毎に集計した統計値のある時点のスナップショットを表現するクラスです。
+ * <p>
+ * 統計値は集計を停止せずに読み込まれるため、各値は同じ時点のものであるとは限りません。 {@link #getCount()}
+ * は追跡を開始する前に破棄された他のクエリの件数を含む場合があり、その上限は {@link #getError()} となります。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class StatementStatistics {
+
+    /**
+     * リテラルを置き換え、空白を正規化したクエリ
+     */
+    private String fingerprint;
+
+    /**
+     * 正規化したクエリのハッシュ値
+     */
+    private long hash;
+
+    /**
+     * クエリの件数
+     */
+    private long count;
+
+    /**
+     * {@link #count} に含まれる可能性がある他のクエリの件数の上限
+     */
+    private long error;
+
+    /**
+     * 整形前のクエリの合計文字数
+     */
+    private long totalCharacters;
+
+    /**
+     * 括弧の最大の深さ
+     */
+    private int maxDepth;
+
+    /**
+     * 整形に要した合計時間 (ナノ秒)
+     */
+    private long totalFormattingNanos;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private StatementStatistics() {
+    }
+
+    /**
+     * 引数として渡された統計値を保持する {@link StatementStatistics} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param fingerprint          リテラルを置き換え、空白を正規化したクエリ
+     * @param hash                 正規化したクエリのハッシュ値
+     * @param count                クエリの件数
+     * @param error                {@code count} に含まれる可能性がある他のクエリの件数の上限
+     * @param totalCharacters      整形前のクエリの合計文字数
+     * @param maxDepth             括弧の最大の深さ
+     * @param totalFormattingNanos 整形に要した合計時間 (ナノ秒)
+     * @return {@link StatementStatistics} クラスの新しいインスタンス
+     */
+    static StatementStatistics of(String fingerprint, long hash, long count, long error, long totalCharacters,
+            int maxDepth, long totalFormattingNanos) {
+
+        final StatementStatistics statistics = new StatementStatistics();
+        statistics.fingerprint = fingerprint;
+        statistics.hash = hash;
+        statistics.count = count;
+        statistics.error = error;
+        statistics.totalCharacters = totalCharacters;
+        statistics.maxDepth = maxDepth;
+        statistics.totalFormattingNanos = totalFormattingNanos;
+
+        return statistics;
+    }
+}
\ No newline at end of file
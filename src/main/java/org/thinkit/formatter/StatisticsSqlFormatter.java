@@ -0,0 +1,651 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package org.thinkit.formatter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.thinkit.common.exception.IllegalNumberFoundException;
+import org.thinkit.formatter.common.Formatter;
+import org.thinkit.formatter.dml.DmlFingerprint;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * 整形したクエリを {@link DmlFingerprint} 毎に集計するフォーマッタクラスです。
+ * <p>
+ * 整形処理は委譲先のフォーマッタで行い、クエリの件数、整形前の合計文字数、括弧の最大の深さ及び整形に要した合計時間を、
+ * リテラルを置き換えて正規化したクエリ毎に集計します。 {@link #snapshot()} メソッドは集計を停止せずにその時点の統計値を返却します。
+ * <p>
+ * 追跡するクエリの種類数は {@link Builder#withCapacity(int)} メソッドで設定した上限を超えません。
+ * 上限に達した状態で新しい種類のクエリが渡された場合は Space-Saving アルゴリズムに従って件数が最も少ないクエリを破棄し、
+ * 新しいクエリはその件数を引き継いで追跡を開始します。そのため、頻度の高いクエリは種類数が上限を超えても追跡され続けます。
+ * <p>
+ * クエリはハッシュ値によって複数のセグメントへ振り分けられ、破棄の対象はセグメント毎に選択されます。
+ * 追跡中のクエリの集計はセグメント内のハッシュ値を添字とする表を探索した上で {@link LongAdder} へ加算するのみで、ロックを取得せず、
+ * 新しい種類のクエリを追加する場合のみセグメントのロックを取得します。
+ *
+ * <pre>
+ * StatisticsSqlFormatter formatter = StatisticsSqlFormatter.builder().withFormatter(CachingSqlFormatter.builder().build())
+ *         .withCapacity(4096).build();
+ * String formattedSql = formatter.format(sql);
+ * List&lt;StatementStatistics&gt; top = formatter.getTopByCount(10);
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class StatisticsSqlFormatter implements Formatter {
+
+    /**
+     * 整形処理を委譲するフォーマッタ
+     */
+    private Formatter formatter;
+
+    /**
+     * 集計のセグメント
+     */
+    @ToString.Exclude
+    private Segment[] segments;
+
+    /**
+     * セグメントの位置を求めるためのマスク
+     */
+    private int segmentMask;
+
+    /**
+     * 追跡を終了したクエリの種類数
+     */
+    private LongAdder evictionCount;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private StatisticsSqlFormatter() {
+    }
+
+    /**
+     * {@link StatisticsSqlFormatter} クラスのインスタンスを生成する {@link Builder} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @return {@link Builder} クラスの新しいインスタンス
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * {@link StatisticsSqlFormatter} クラスのインスタンスを生成する処理を定義したビルダークラスです。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    public static class Builder {
+
+        /**
+         * インデント数
+         */
+        private int indent = -1;
+
+        /**
+         * 整形処理を委譲するフォーマッタ
+         */
+        private Formatter formatter;
+
+        /**
+         * 追跡するクエリの最大種類数
+         */
+        private int capacity = 1024;
+
+        /**
+         * セグメント数
+         */
+        private int concurrencyLevel = 16;
+
+        /**
+         * デフォルトコンストラクタ
+         */
+        private Builder() {
+        }
+
+        /**
+         * インデント数を設定します。 {@link #withFormatter(Formatter)} メソッドでフォーマッタが設定された場合は使用されません。
+         * <p>
+         * 負数が設定された場合はコンテンツに定義された既定のインデント数が使用されます。
+         *
+         * @param indent インデント数
+         * @return 自分自身のインスタンス
+         */
+        public Builder withIndent(int indent) {
+            this.indent = indent;
+            return this;
+        }
+
+        /**
+         * 整形処理を委譲するフォーマッタを設定します。
+         * <p>
+         * 設定されない場合は {@link SqlFormatter} クラスが使用されます。
+         *
+         * @param formatter 整形処理を委譲するフォーマッタ
+         * @return 自分自身のインスタンス
+         *
+         * @exception NullPointerException 引数として {@code null} が渡された場合
+         */
+        public Builder withFormatter(@NonNull Formatter formatter) {
+            this.formatter = formatter;
+            return this;
+        }
+
+        /**
+         * 追跡するクエリの最大種類数を設定します。
+         *
+         * @param capacity 追跡するクエリの最大種類数
+         * @return 自分自身のインスタンス
+         *
+         * @throws IllegalNumberFoundException 引数として渡された {@code capacity} が1未満の場合
+         */
+        public Builder withCapacity(int capacity) {
+            this.capacity = requireGreaterThanZero(capacity);
+            return this;
+        }
+
+        /**
+         * 集計を分割するセグメント数の目安を設定します。実際のセグメント数は指定された数以上の2の累乗に切り上げられますが、
+         * 各セグメントが1種類以上のクエリを追跡できるように最大種類数以下の2の累乗に制限されます。
+         *
+         * @param concurrencyLevel セグメント数の目安
+         * @return 自分自身のインスタンス
+         *
+         * @throws IllegalNumberFoundException 引数として渡された {@code concurrencyLevel} が1未満の場合
+         */
+        public Builder withConcurrencyLevel(int concurrencyLevel) {
+            this.concurrencyLevel = requireGreaterThanZero(concurrencyLevel);
+            return this;
+        }
+
+        /**
+         * 引数として渡された {@code number} が1以上であることを検証します。
+         *
+         * @param number 検証する数値
+         * @return {@code number}
+         *
+         * @throws IllegalNumberFoundException {@code number} が1未満の場合
+         */
+        private static int requireGreaterThanZero(int number) {
+
+            if (number < 1) {
+                throw new IllegalNumberFoundException(
+                        String.format("Number must be greater than 0 but %s was given", number));
+            }
+
+            return number;
+        }
+
+        /**
+         * 設定された値を基に {@link StatisticsSqlFormatter} クラスの新しいインスタンスを生成し返却します。
+         *
+         * @return {@link StatisticsSqlFormatter} クラスの新しいインスタンス
+         */
+        public StatisticsSqlFormatter build() {
+
+            int segmentCount = 1;
+            while (segmentCount < this.concurrencyLevel && segmentCount * 2 <= this.capacity) {
+                segmentCount <<= 1;
+            }
+
+            final StatisticsSqlFormatter formatter = new StatisticsSqlFormatter();
+            formatter.formatter = this.formatter != null ? this.formatter : SqlFormatter.withIndent(this.indent);
+            formatter.segments = new Segment[segmentCount];
+            formatter.segmentMask = segmentCount - 1;
+            formatter.evictionCount = new LongAdder();
+
+            final int cellsPerSegment = this.capacity / segmentCount;
+            final int remainder = this.capacity % segmentCount;
+
+            for (int i = 0; i < segmentCount; i++) {
+                formatter.segments[i] = new Segment(cellsPerSegment + (i < remainder ? 1 : 0), formatter.evictionCount);
+            }
+
+            return formatter;
+        }
+    }
+
+    @Override
+    public String format(@NonNull String sql) {
+
+        final long start = System.nanoTime();
+
+        try {
+            return this.formatter.format(sql);
+        } finally {
+            this.record(sql, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 引数として渡された {@code sql} を整形に {@code formattingNanos} ナノ秒を要したクエリとして集計します。
+     * <p>
+     * このフォーマッタを経由せずに整形したクエリを集計する場合に使用します。
+     *
+     * @param sql             整形前のクエリ
+     * @param formattingNanos 整形に要した時間 (ナノ秒)
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public void record(@NonNull String sql, long formattingNanos) {
+
+        final DmlFingerprint fingerprint = DmlFingerprint.measure(sql);
+        final long hash = fingerprint.getHash();
+        final Segment segment = this.segments[(int) (hash ^ (hash >>> 32)) & this.segmentMask];
+
+        Cell cell = segment.get(hash);
+
+        if (cell == null) {
+            cell = segment.add(hash, sql);
+        }
+
+        cell.record(sql.length(), fingerprint.getMaxDepth(), formattingNanos);
+    }
+
+    /**
+     * 追跡している全てのクエリの統計値を件数の多い順に返却します。集計は停止されません。
+     *
+     * @return 追跡しているクエリの統計値
+     */
+    public List<StatementStatistics> snapshot() {
+
+        final List<StatementStatistics> snapshot = new ArrayList<>();
+
+        for (Segment segment : this.segments) {
+            segment.snapshot(snapshot);
+        }
+
+        snapshot.sort(Comparator.comparingLong(StatementStatistics::getCount).reversed());
+
+        return snapshot;
+    }
+
+    /**
+     * 件数の多い順に最大 {@code limit} 種類のクエリの統計値を返却します。
+     *
+     * @param limit 返却する最大種類数
+     * @return 件数の多いクエリの統計値
+     */
+    public List<StatementStatistics> getTopByCount(int limit) {
+        return top(this.snapshot(), limit);
+    }
+
+    /**
+     * 整形前の合計文字数の多い順に最大 {@code limit} 種類のクエリの統計値を返却します。
+     *
+     * @param limit 返却する最大種類数
+     * @return 合計文字数の多いクエリの統計値
+     */
+    public List<StatementStatistics> getTopByCharacters(int limit) {
+
+        final List<StatementStatistics> snapshot = this.snapshot();
+        snapshot.sort(Comparator.comparingLong(StatementStatistics::getTotalCharacters).reversed());
+
+        return top(snapshot, limit);
+    }
+
+    /**
+     * 引数として渡された {@code statistics} の先頭から最大 {@code limit} 件を返却します。
+     *
+     * @param statistics 並べ替えた統計値
+     * @param limit      返却する最大件数
+     * @return 先頭から最大 {@code limit} 件の統計値
+     */
+    private static List<StatementStatistics> top(List<StatementStatistics> statistics, int limit) {
+        return new ArrayList<>(statistics.subList(0, Math.max(0, Math.min(limit, statistics.size()))));
+    }
+
+    /**
+     * 種類数の上限を超えたために追跡を終了したクエリの種類数を返却します。
+     *
+     * @return 追跡を終了したクエリの種類数
+     */
+    public long getEvictionCount() {
+        return this.evictionCount.sum();
+    }
+
+    /**
+     * 1種類のクエリの統計値を保持するセルです。
+     * <p>
+     * 各統計値は {@link LongAdder} と {@link LongAccumulator} で保持されるため、複数のスレッドから同時に加算しても競合しません。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    private static final class Cell {
+
+        /**
+         * 正規化したクエリのハッシュ値
+         */
+        private final long hash;
+
+        /**
+         * 追跡を開始したクエリ
+         */
+        private final String sql;
+
+        /**
+         * リテラルを置き換え、空白を正規化したクエリ。生成していない場合は {@code null}
+         */
+        private volatile String fingerprint;
+
+        /**
+         * 追跡を開始した時点で引き継いだ件数
+         */
+        private final long error;
+
+        /**
+         * 件数
+         */
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * 整形前の合計文字数
+         */
+        private final LongAdder characters = new LongAdder();
+
+        /**
+         * 整形に要した合計時間
+         */
+        private final LongAdder formattingNanos = new LongAdder();
+
+        /**
+         * 括弧の最大の深さ
+         */
+        private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+        /**
+         * コンストラクタ
+         *
+         * @param hash  正規化したクエリのハッシュ値
+         * @param sql   追跡を開始したクエリ
+         * @param error 追跡を開始した時点で引き継いだ件数
+         */
+        private Cell(long hash, String sql, long error) {
+            this.hash = hash;
+            this.sql = sql;
+            this.error = error;
+            this.count.add(error);
+        }
+
+        /**
+         * 1件のクエリを集計します。
+         *
+         * @param characters      整形前のクエリの文字数
+         * @param depth           括弧の最大の深さ
+         * @param formattingNanos 整形に要した時間
+         */
+        private void record(int characters, int depth, long formattingNanos) {
+            this.count.increment();
+            this.characters.add(characters);
+            this.formattingNanos.add(formattingNanos);
+
+            if (depth > 0) {
+                this.maxDepth.accumulate(depth);
+            }
+        }
+
+        /**
+         * 現在の統計値のスナップショットを返却します。
+         * <p>
+         * 正規化したクエリは最初のスナップショットの際に生成され、以降は再利用されます。
+         * 複数のスレッドが同時に生成した場合も結果は同じ文字列となります。
+         *
+         * @return 統計値のスナップショット
+         */
+        private StatementStatistics snapshot() {
+
+            String fingerprint = this.fingerprint;
+
+            if (fingerprint == null) {
+                fingerprint = DmlFingerprint.of(this.sql).getNormalizedSql();
+                this.fingerprint = fingerprint;
+            }
+
+            return StatementStatistics.of(fingerprint, this.hash, this.count.sum(), this.error,
+                    this.characters.sum(), (int) this.maxDepth.get(), this.formattingNanos.sum());
+        }
+    }
+
+    /**
+     * 固定数のセルでクエリの統計値を保持し、空きがない場合は件数が最も少ないセルを置き換えるセグメントです。
+     * <p>
+     * セルはハッシュ値を添字とするオープンアドレス法の表で管理され、線形探索で参照します。表の長さはセル数の2倍以上の2の累乗のため、
+     * 追跡中のクエリも追跡していないクエリも通常は数回の探索で判定できます。参照はロックを取得せずに行い、
+     * 追加及び置き換えのみロックを取得します。置き換えの最中に参照したスレッドはセルを見つけられない場合がありますが、
+     * その場合は {@link #add(long, String)} メソッドがロックを取得した上で再度探索するため、同じクエリのセルが重複することはありません。
+     * 置き換えられる直前のセルへ加算された値は失われる場合があります。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    private static final class Segment {
+
+        /**
+         * セルを追加及び置き換える際のロック
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * ハッシュ値を添字とするセルの表
+         */
+        private final AtomicReferenceArray<Cell> table;
+
+        /**
+         * 表の添字のマスク
+         */
+        private final int mask;
+
+        /**
+         * 追加順のセル。ロックを取得した状態でのみ参照されます。
+         */
+        private final Cell[] cells;
+
+        /**
+         * 保持しているセル数。ロックを取得した状態でのみ参照されます。
+         */
+        private int size;
+
+        /**
+         * 破棄数
+         */
+        private final LongAdder evictionCount;
+
+        /**
+         * コンストラクタ
+         *
+         * @param capacity      セル数
+         * @param evictionCount 破棄数
+         */
+        private Segment(int capacity, LongAdder evictionCount) {
+            final int length = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            this.table = new AtomicReferenceArray<>(length);
+            this.mask = length - 1;
+            this.cells = new Cell[capacity];
+            this.evictionCount = evictionCount;
+        }
+
+        /**
+         * 引数として渡された {@code hash} の探索を開始する表の添字を返却します。
+         *
+         * @param hash 正規化したクエリのハッシュ値
+         * @return 表の添字
+         */
+        private int indexFor(long hash) {
+            return (int) ((hash * 0x9E3779B97F4A7C15L) >>> 32) & this.mask;
+        }
+
+        /**
+         * 引数として渡された {@code hash} のクエリを集計しているセルを返却します。
+         *
+         * @param hash 正規化したクエリのハッシュ値
+         * @return セル。存在しない場合は {@code null}
+         */
+        private Cell get(long hash) {
+
+            for (int i = this.indexFor(hash), probes = 0; probes <= this.mask; i = (i + 1) & this.mask, probes++) {
+                final Cell cell = this.table.get(i);
+
+                if (cell == null) {
+                    return null;
+                }
+
+                if (cell.hash == hash) {
+                    return cell;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * 引数として渡された {@code sql} を集計するセルを追加し返却します。
+         * <p>
+         * 空きがない場合は件数が最も少ないセルを置き換え、新しいセルはその件数を引き継ぎます。
+         * ロックの取得を待つ間に他のスレッドが同じクエリのセルを追加した場合はそのセルを返却します。
+         * 正規化したクエリはスナップショットの際に生成されるため、クエリを再度走査することはありません。
+         *
+         * @param hash 正規化したクエリのハッシュ値
+         * @param sql  整形前のクエリ
+         * @return 追加したセル
+         */
+        private Cell add(long hash, String sql) {
+
+            this.lock.lock();
+            try {
+                final Cell existing = this.get(hash);
+
+                if (existing != null) {
+                    return existing;
+                }
+
+                if (this.size < this.cells.length) {
+                    final Cell added = new Cell(hash, sql, 0);
+                    this.cells[this.size++] = added;
+                    this.insert(added);
+                    return added;
+                }
+
+                int victim = 0;
+                long minimum = Long.MAX_VALUE;
+
+                for (int i = 0; i < this.size; i++) {
+                    final long count = this.cells[i].count.sum();
+
+                    if (count < minimum) {
+                        minimum = count;
+                        victim = i;
+                    }
+                }
+
+                this.remove(this.cells[victim]);
+
+                final Cell replaced = new Cell(hash, sql, minimum);
+                this.cells[victim] = replaced;
+                this.insert(replaced);
+                this.evictionCount.increment();
+
+                return replaced;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * 引数として渡された {@code cell} を表の空いている位置へ格納します。ロックを取得した状態で呼び出されます。
+         *
+         * @param cell 格納するセル
+         */
+        private void insert(Cell cell) {
+
+            int i = this.indexFor(cell.hash);
+            while (this.table.get(i) != null) {
+                i = (i + 1) & this.mask;
+            }
+
+            this.table.set(i, cell);
+        }
+
+        /**
+         * 引数として渡された {@code cell} を表から削除し、後続のセルを探索が途切れない位置へ詰めます。ロックを取得した状態で呼び出されます。
+         *
+         * @param cell 削除するセル
+         */
+        private void remove(Cell cell) {
+
+            int hole = this.indexFor(cell.hash);
+            while (this.table.get(hole) != cell) {
+                hole = (hole + 1) & this.mask;
+            }
+
+            for (int i = (hole + 1) & this.mask;; i = (i + 1) & this.mask) {
+                final Cell next = this.table.get(i);
+
+                if (next == null) {
+                    break;
+                }
+
+                final int home = this.indexFor(next.hash);
+
+                if (((i - home) & this.mask) >= ((i - hole) & this.mask)) {
+                    this.table.set(hole, next);
+                    hole = i;
+                }
+            }
+
+            this.table.set(hole, null);
+        }
+
+        /**
+         * 保持している全てのセルの統計値のスナップショットを {@code snapshot} へ追加します。
+         * <p>
+         * ロックを取得するのはセルの一覧を複製する間のみで、正規化したクエリの生成はロックを解放した後に行います。
+         *
+         * @param snapshot スナップショットの追加先
+         */
+        private void snapshot(List<StatementStatistics> snapshot) {
+
+            final Cell[] cells;
+
+            this.lock.lock();
+            try {
+                cells = Arrays.copyOf(this.cells, this.size);
+            } finally {
+                this.lock.unlock();
+            }
+
+            for (Cell cell : cells) {
+                snapshot.add(cell.snapshot());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.catalog;
+
+import org.thinkit.api.catalog.BiCatalog;
+import org.thinkit.formatter.catalog.ddl.Constraint;
+import org.thinkit.formatter.catalog.ddl.DdlStatement;
+import org.thinkit.formatter.catalog.dml.DmlStatement;
+import org.thinkit.formatter.catalog.dml.EndClause;
+import org.thinkit.formatter.catalog.dml.LogicalExpression;
+import org.thinkit.formatter.catalog.dml.Quantifier;
+import org.thinkit.formatter.catalog.dml.StartClause;
+
+import lombok.NonNull;
+
+/**
+ * SQLのキーワードとキーワードが属するカタログの対応を管理する分類表です。
+ * <p>
+ * 各カタログに定義されたタグをクラスの初期化時に一度だけ開番地法のハッシュ表へ登録し、トークンが属するカタログの集合をビットマスクとして
+ * 1回の探索で返却します。トークンの比較は大文字と小文字を区別せずに元の文字列上で行うため、小文字へ変換した文字列を生成する必要はありません。
+ *
+ * <pre>
+ * final int category = KeywordTable.lookup(token);
+ *
+ * if (KeywordTable.contains(category, KeywordTable.DML_STATEMENT)) {
+ *     // do something
+ * }
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+public final class KeywordTable {
+
+    /**
+     * どのカタログにも属さないことを示す分類
+     */
+    public static final int NONE = 0;
+
+    /**
+     * {@link DmlStatement} に属することを示す分類
+     */
+    public static final int DML_STATEMENT = 1;
+
+    /**
+     * {@link StartClause} に属することを示す分類
+     */
+    public static final int DML_START_CLAUSE = 1 << 1;
+
+    /**
+     * {@link EndClause} に属することを示す分類
+     */
+    public static final int DML_END_CLAUSE = 1 << 2;
+
+    /**
+     * {@link LogicalExpression} に属することを示す分類
+     */
+    public static final int DML_LOGICAL_EXPRESSION = 1 << 3;
+
+    /**
+     * {@link Quantifier} に属することを示す分類
+     */
+    public static final int DML_QUANTIFIER = 1 << 4;
+
+    /**
+     * {@link DdlStatement} に属することを示す分類
+     */
+    public static final int DDL_STATEMENT = 1 << 5;
+
+    /**
+     * {@link org.thinkit.formatter.catalog.ddl.StartClause} に属することを示す分類
+     */
+    public static final int DDL_START_CLAUSE = 1 << 6;
+
+    /**
+     * {@link org.thinkit.formatter.catalog.ddl.EndClause} に属することを示す分類
+     */
+    public static final int DDL_END_CLAUSE = 1 << 7;
+
+    /**
+     * {@link Constraint} に属することを示す分類
+     */
+    public static final int DDL_CONSTRAINT = 1 << 8;
+
+    /**
+     * {@link org.thinkit.formatter.catalog.ddl.LogicalExpression} に属することを示す分類
+     */
+    public static final int DDL_LOGICAL_EXPRESSION = 1 << 9;
+
+    /**
+     * ハッシュ表の容量
+     */
+    private static final int CAPACITY = 256;
+
+    /**
+     * ハッシュ表の位置を求めるためのマスク
+     */
+    private static final int MASK = CAPACITY - 1;
+
+    /**
+     * 登録されたキーワード
+     */
+    private static final char[][] KEYWORDS = new char[CAPACITY][];
+
+    /**
+     * 登録されたキーワードの分類
+     */
+    private static final int[] CATEGORIES = new int[CAPACITY];
+
+    /**
+     * 登録されたキーワードの最大長
+     */
+    private static int maxLength;
+
+    static {
+        register(DmlStatement.values(), DML_STATEMENT);
+        register(StartClause.values(), DML_START_CLAUSE);
+        register(EndClause.values(), DML_END_CLAUSE);
+        register(LogicalExpression.values(), DML_LOGICAL_EXPRESSION);
+        register(Quantifier.values(), DML_QUANTIFIER);
+        register(DdlStatement.values(), DDL_STATEMENT);
+        register(org.thinkit.formatter.catalog.ddl.StartClause.values(), DDL_START_CLAUSE);
+        register(org.thinkit.formatter.catalog.ddl.EndClause.values(), DDL_END_CLAUSE);
+        register(Constraint.values(), DDL_CONSTRAINT);
+        register(org.thinkit.formatter.catalog.ddl.LogicalExpression.values(), DDL_LOGICAL_EXPRESSION);
+    }
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private KeywordTable() {
+    }
+
+    /**
+     * 引数として渡されたカタログの要素に定義されたタグを {@code category} の分類としてハッシュ表へ登録します。
+     *
+     * @param elements カタログの要素
+     * @param category 分類
+     */
+    private static void register(BiCatalog<?, String>[] elements, int category) {
+        for (BiCatalog<?, String> element : elements) {
+
+            final String tag = element.getTag();
+            int index = indexOf(tag, 0, tag.length());
+
+            while (KEYWORDS[index] != null && !matches(KEYWORDS[index], tag, 0, tag.length())) {
+                index = (index + 1) & MASK;
+            }
+
+            KEYWORDS[index] = tag.toCharArray();
+            CATEGORIES[index] |= category;
+            maxLength = Math.max(maxLength, tag.length());
+        }
+    }
+
+    /**
+     * 引数として渡された {@code token} が属するカタログの分類を返却します。
+     *
+     * @param token 判定対象のトークン
+     * @return {@code token} が属するカタログの分類のビットマスク。どのカタログにも属さない場合は {@link #NONE}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static int lookup(@NonNull CharSequence token) {
+        return lookup(token, 0, token.length());
+    }
+
+    /**
+     * 引数として渡された {@code source} の {@code start} から {@code end} の直前までの範囲にあるトークンが属するカタログの分類を返却します。
+     *
+     * @param source 判定対象のトークンを含む文字列
+     * @param start  トークンの開始位置
+     * @param end    トークンの終了位置
+     * @return トークンが属するカタログの分類のビットマスク。どのカタログにも属さない場合は {@link #NONE}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static int lookup(@NonNull CharSequence source, int start, int end) {
+
+        if (end - start < 1 || end - start > maxLength) {
+            return NONE;
+        }
+
+        int index = indexOf(source, start, end);
+
+        while (KEYWORDS[index] != null) {
+            if (matches(KEYWORDS[index], source, start, end)) {
+                return CATEGORIES[index];
+            }
+
+            index = (index + 1) & MASK;
+        }
+
+        return NONE;
+    }
+
+    /**
+     * 引数として渡された {@code source} の {@code start} から {@code end} の直前までの範囲にあるトークンが、小文字で表現された
+     * {@code keyword} と大文字と小文字を区別せずに一致するか判定します。
+     * <p>
+     * 判定は元の文字列上で行われるため、トークンを小文字へ変換した文字列は生成されません。
+     *
+     * @param keyword 小文字で表現されたキーワード
+     * @param source  判定対象のトークンを含む文字列
+     * @param start   トークンの開始位置
+     * @param end     トークンの終了位置
+     * @return トークンが {@code keyword} と一致する場合は {@code true} 、それ以外は {@code false}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static boolean matches(@NonNull String keyword, @NonNull CharSequence source, int start, int end) {
+
+        if (keyword.length() != end - start) {
+            return false;
+        }
+
+        for (int i = 0, length = keyword.length(); i < length; i++) {
+            if (keyword.charAt(i) != toLowerCase(source.charAt(start + i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 引数として渡された {@code categories} に {@code category} の分類が含まれているか判定します。
+     *
+     * @param categories {@link #lookup(CharSequence)} メソッドから返却された分類のビットマスク
+     * @param category   判定対象の分類
+     * @return {@code categories} に {@code category} の分類が含まれている場合は {@code true} 、それ以外は
+     *         {@code false}
+     */
+    public static boolean contains(int categories, int category) {
+        return (categories & category) != 0;
+    }
+
+    /**
+     * 引数として渡された範囲のトークンに対するハッシュ表の位置を返却します。
+     *
+     * @param source トークンを含む文字列
+     * @param start  トークンの開始位置
+     * @param end    トークンの終了位置
+     * @return ハッシュ表の位置
+     */
+    private static int indexOf(CharSequence source, int start, int end) {
+
+        int hash = end - start;
+
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + toLowerCase(source.charAt(i));
+        }
+
+        return (hash ^ (hash >>> 7)) & MASK;
+    }
+
+    /**
+     * 登録されたキーワードと引数として渡された範囲のトークンが大文字と小文字を区別せずに一致するか判定します。
+     *
+     * @param keyword 登録されたキーワード
+     * @param source  トークンを含む文字列
+     * @param start   トークンの開始位置
+     * @param end     トークンの終了位置
+     * @return 一致する場合は {@code true} 、それ以外は {@code false}
+     */
+    private static boolean matches(char[] keyword, CharSequence source, int start, int end) {
+
+        if (keyword.length != end - start) {
+            return false;
+        }
+
+        for (int i = 0; i < keyword.length; i++) {
+            if (keyword[i] != toLowerCase(source.charAt(start + i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 引数として渡された {@code character} を {@link java.util.Locale#ROOT} の規則で小文字へ変換した際の文字を返却します。
+     * <p>
+     * キーワードは全てASCII文字で構成されるため、小文字へ変換した結果がASCII文字となる文字のみを変換します。
+     *
+     * @param character 変換対象の文字
+     * @return 小文字へ変換した文字
+     */
+    private static char toLowerCase(char character) {
+
+        if (character >= 'A' && character <= 'Z') {
+            return (char) (character + ('a' - 'A'));
+        } else if (character == '\u212A') {
+            // KELVIN SIGN
+            return 'k';
+        }
+
+        return character;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.content;
+
+import org.thinkit.formatter.common.catalog.IndentType;
+import org.thinkit.formatter.content.ddl.entity.DdlDefaultIndentItem;
+import org.thinkit.formatter.content.ddl.rule.DdlDefaultIndentItemCollector;
+import org.thinkit.formatter.content.dml.entity.DmlDefaultIndentItem;
+import org.thinkit.formatter.content.dml.rule.DmlDefaultIndentItemCollector;
+import org.thinkit.framework.content.rule.RuleInvoker;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * コンテンツ「DML既定インデント項目」と「DDL既定インデント項目」の値をプロセス全体で共有するスナップショットクラスです。
+ * <p>
+ * スナップショットは {@link #get()} メソッドが初めて呼び出された際に一度だけ生成され、以降の呼び出しでは生成済みのスナップショットが返却されます。
+ * 既定値はビルド時にコンテンツから生成された定数から取得されるため、コンテンツファイルの読み込みと解析は行われません。
+ * <p>
+ * システムプロパティ {@code org.thinkit.formatter.content.override} に {@code true} が指定された場合は、
+ * 定数の代わりに実行時のコンテンツからスナップショットをロードします。 コンテンツの値を再度読み込む必要がある場合は {@link #reload()}
+ * メソッドを使用してください。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+@EqualsAndHashCode
+public final class DefaultIndentItemSnapshot {
+
+    /**
+     * 実行時のコンテンツから既定値をロードするかを指定するシステムプロパティ
+     */
+    public static final String CONTENT_OVERRIDE_PROPERTY = "org.thinkit.formatter.content.override";
+
+    /**
+     * ロード済みのスナップショット
+     */
+    private static volatile DefaultIndentItemSnapshot snapshot;
+
+    /**
+     * DML既定インデント項目
+     */
+    @Getter
+    private final DmlDefaultIndentItem dmlDefaultIndentItem;
+
+    /**
+     * DDL既定インデント項目
+     */
+    @Getter
+    private final DdlDefaultIndentItem ddlDefaultIndentItem;
+
+    /**
+     * コンストラクタ
+     *
+     * @param dmlDefaultIndentItem DML既定インデント項目
+     * @param ddlDefaultIndentItem DDL既定インデント項目
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private DefaultIndentItemSnapshot(@NonNull DmlDefaultIndentItem dmlDefaultIndentItem,
+            @NonNull DdlDefaultIndentItem ddlDefaultIndentItem) {
+        this.dmlDefaultIndentItem = dmlDefaultIndentItem;
+        this.ddlDefaultIndentItem = ddlDefaultIndentItem;
+    }
+
+    /**
+     * ロード済みのスナップショットを返却します。
+     * <p>
+     * スナップショットがまだ生成されていない場合は、ビルド時に生成された定数から生成した後に返却します。 システムプロパティ
+     * {@code org.thinkit.formatter.content.override} に {@code true} が指定されている場合はコンテンツからロードします。
+     *
+     * @return ロード済みのスナップショット
+     */
+    public static DefaultIndentItemSnapshot get() {
+
+        DefaultIndentItemSnapshot current = snapshot;
+
+        if (current == null) {
+            synchronized (DefaultIndentItemSnapshot.class) {
+                current = snapshot;
+
+                if (current == null) {
+                    current = Boolean.getBoolean(CONTENT_OVERRIDE_PROPERTY) ? load() : generate();
+                    snapshot = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * コンテンツから既定インデント項目を再度ロードし、スナップショットを置き換えます。
+     * <p>
+     * システムプロパティ {@code org.thinkit.formatter.content.override} の指定に関わらず、実行時のコンテンツからロードします。
+     * <p>
+     * 既に {@link #get()} メソッドで取得済みのスナップショットは変更されません。
+     *
+     * @return 新しくロードされたスナップショット
+     */
+    public static DefaultIndentItemSnapshot reload() {
+        synchronized (DefaultIndentItemSnapshot.class) {
+            final DefaultIndentItemSnapshot current = load();
+            snapshot = current;
+            return current;
+        }
+    }
+
+    /**
+     * ビルド時にコンテンツから生成された定数を基に、新しいスナップショットを生成し返却します。
+     *
+     * @return 新しいスナップショット
+     */
+    private static DefaultIndentItemSnapshot generate() {
+        return new DefaultIndentItemSnapshot(
+                DmlDefaultIndentItem.of(indentTypeOf(DefaultIndentItemConstants.DML_DEFAULT_INDENT_ITEM_INDENT_TYPE),
+                        DefaultIndentItemConstants.DML_DEFAULT_INDENT_ITEM_INDENT),
+                DdlDefaultIndentItem.of(indentTypeOf(DefaultIndentItemConstants.DDL_DEFAULT_INDENT_ITEM_INDENT_TYPE),
+                        DefaultIndentItemConstants.DDL_DEFAULT_INDENT_ITEM_INDENT));
+    }
+
+    /**
+     * 引数として渡された {@code code} に対応するインデントタイプを返却します。
+     *
+     * @param code インデントタイプのコード値
+     * @return {@code code} に対応するインデントタイプ
+     *
+     * @throws IllegalStateException {@code code} に対応するインデントタイプが存在しない場合
+     */
+    private static IndentType indentTypeOf(int code) {
+
+        for (IndentType indentType : IndentType.values()) {
+            if (indentType.getCode() == code) {
+                return indentType;
+            }
+        }
+
+        throw new IllegalStateException(String.format("Unknown indent type code: %d", code));
+    }
+
+    /**
+     * コンテンツから既定インデント項目をロードし、新しいスナップショットを生成し返却します。
+     *
+     * @return 新しいスナップショット
+     */
+    private static DefaultIndentItemSnapshot load() {
+        return new DefaultIndentItemSnapshot(RuleInvoker.of(DmlDefaultIndentItemCollector.of()).invoke(),
+                RuleInvoker.of(DdlDefaultIndentItemCollector.of()).invoke());
+    }
+}
\ No newline at end of file
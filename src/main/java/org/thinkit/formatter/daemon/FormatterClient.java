@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+import org.thinkit.formatter.common.exception.FormattingException;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * {@link FormatterDaemon} へUnixドメインソケットで接続し、クエリの整形を依頼するクライアントクラスです。
+ * <p>
+ * 1つのクライアントで複数のクエリを順に整形することができます。 {@link #format(String, int)} メソッドは同期化されているため、
+ * 複数のスレッドから呼び出された場合は1件ずつ順に処理されます。
+ *
+ * <pre>
+ * try (FormatterClient client = FormatterClient.connect(socket)) {
+ *     final String formattedSql = client.format(sql, -1);
+ * }
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class FormatterClient implements Closeable {
+
+    /**
+     * デーモンへ接続したチャネル
+     */
+    private SocketChannel channel;
+
+    /**
+     * 応答の読み込み元
+     */
+    @ToString.Exclude
+    private DataInputStream input;
+
+    /**
+     * 要求の出力先
+     */
+    @ToString.Exclude
+    private DataOutputStream output;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private FormatterClient() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param channel デーモンへ接続したチャネル
+     */
+    private FormatterClient(@NonNull SocketChannel channel) {
+        this.channel = channel;
+        this.input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        this.output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * 引数として渡された {@code socket} で待ち受けるデーモンへ接続したクライアントを返却します。
+     *
+     * @param socket デーモンのソケットファイルのパス
+     * @return デーモンへ接続したクライアント
+     *
+     * @throws IOException                   デーモンへの接続に失敗した場合
+     * @throws UnsupportedOperationException 実行環境がUnixドメインソケットに対応していない場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static FormatterClient connect(@NonNull Path socket) throws IOException {
+        return new FormatterClient(UnixDomainSockets.connect(socket));
+    }
+
+    /**
+     * 引数として渡された {@code sql} を {@code indent} のインデント数で整形するようデーモンへ依頼し、整形結果を返却します。
+     * <p>
+     * {@code indent} に負数を渡した場合はデフォルトのインデント数で整形されます。
+     *
+     * @param sql    整形対象のクエリ
+     * @param indent インデント数
+     * @return 整形結果
+     *
+     * @throws IOException         デーモンとの通信に失敗した場合
+     * @throws FormattingException デーモンでの整形に失敗した場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public synchronized String format(@NonNull String sql, int indent) throws IOException {
+
+        this.output.writeInt(indent);
+        FormatterProtocol.writeString(this.output, sql);
+        this.output.flush();
+
+        final byte status = this.input.readByte();
+        final String body = FormatterProtocol.readString(this.input);
+
+        if (status != FormatterProtocol.STATUS_OK) {
+            throw new FormattingException(body);
+        }
+
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.thinkit.formatter.SqlFormatter;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Unixドメインソケットで整形の要求を待ち受け、常駐したJVMでクエリを整形するデーモンクラスです。
+ * <p>
+ * 起動時に既定のインデント設定の読み込みと整形処理の初期化を済ませるため、要求毎にJVMを起動する場合と比べて起動と初期化の時間が発生しません。
+ * 接続毎の処理は仮想スレッドで実行されます。実行環境が仮想スレッドに対応していない場合は必要に応じて生成されるスレッドプールで実行されます。
+ * <p>
+ * 要求は {@link FormatterClient} クラスから送信します。ソケットファイルは {@link #close()} メソッドで削除されます。
+ *
+ * <pre>
+ * try (FormatterDaemon daemon = FormatterDaemon.of(socket).start()) {
+ *     daemon.await();
+ * }
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class FormatterDaemon implements Closeable {
+
+    /**
+     * 待ち受けるソケットファイルのパス
+     */
+    private Path socket;
+
+    /**
+     * インデント数毎のフォーマッタ
+     */
+    @ToString.Exclude
+    private ConcurrentMap<Integer, SqlFormatter> formatters;
+
+    /**
+     * 停止を待機するラッチ
+     */
+    @ToString.Exclude
+    private CountDownLatch terminated;
+
+    /**
+     * サーバーチャネル
+     */
+    @ToString.Exclude
+    private ServerSocketChannel server;
+
+    /**
+     * 接続毎の処理を実行するエグゼキューター
+     */
+    @ToString.Exclude
+    private ExecutorService executor;
+
+    /**
+     * 接続の受け付けを異常終了させた例外
+     */
+    @ToString.Exclude
+    private volatile IOException failure;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private FormatterDaemon() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param socket 待ち受けるソケットファイルのパス
+     */
+    private FormatterDaemon(@NonNull Path socket) {
+        this.socket = socket;
+        this.formatters = new ConcurrentHashMap<>();
+        this.terminated = new CountDownLatch(1);
+    }
+
+    /**
+     * 引数として渡された {@code socket} で待ち受ける {@link FormatterDaemon} クラスの新しいインスタンスを生成し返却します。
+     * <p>
+     * 生成したデーモンは {@link #start()} メソッドを呼び出すまで要求を待ち受けません。
+     *
+     * @param socket 待ち受けるソケットファイルのパス
+     * @return {@link FormatterDaemon} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static FormatterDaemon of(@NonNull Path socket) {
+        return new FormatterDaemon(socket);
+    }
+
+    /**
+     * 整形処理を初期化した後にソケットファイルを作成し、要求の待ち受けを開始します。
+     * <p>
+     * ソケットファイルが既に存在し、かつ他のデーモンが待ち受けていない場合は残されたソケットファイルとして削除した上で作成します。
+     * 通常のファイル、ディレクトリ及びシンボリックリンクは残されたソケットファイルとみなさず、削除せずに例外を送出します。
+     *
+     * @return 自分自身のインスタンス
+     *
+     * @throws FileAlreadyExistsException    ソケットファイルのパスにソケット以外のファイルが存在する場合
+     * @throws IOException                   ソケットファイルの作成に失敗した場合
+     * @throws IllegalStateException         既に開始されている場合、または他のデーモンが同じソケットファイルで待ち受けている場合
+     * @throws UnsupportedOperationException 実行環境がUnixドメインソケットに対応していない場合
+     */
+    public synchronized FormatterDaemon start() throws IOException {
+
+        if (this.server != null) {
+            throw new IllegalStateException("The daemon has already been started");
+        }
+
+        this.formatterOf(-1).format("select 1");
+
+        if (Files.exists(this.socket, LinkOption.NOFOLLOW_LINKS)) {
+            if (!Files.readAttributes(this.socket, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther()) {
+                throw new FileAlreadyExistsException(this.socket.toString(), null,
+                        "The path exists and is not a socket left behind by a daemon");
+            }
+
+            if (isListening(this.socket)) {
+                throw new IllegalStateException(
+                        String.format("Another daemon is already listening on %s", this.socket));
+            }
+
+            Files.delete(this.socket);
+        }
+
+        this.server = UnixDomainSockets.bind(this.socket);
+        this.executor = newExecutor();
+
+        final Thread acceptor = new Thread(this::accept, "sql-formatter-daemon");
+        acceptor.start();
+
+        return this;
+    }
+
+    /**
+     * デーモンが停止されるまで現在のスレッドを待機させます。
+     * <p>
+     * 接続の受け付けに失敗したためにデーモンが停止した場合は、その原因となった例外を送出します。
+     *
+     * @throws InterruptedException 待機中に割り込まれた場合
+     * @throws IOException          接続の受け付けに失敗したためにデーモンが停止した場合
+     */
+    public void await() throws InterruptedException, IOException {
+        this.terminated.await();
+
+        if (this.failure != null) {
+            throw new IOException(String.format("The daemon on %s stopped accepting connections", this.socket),
+                    this.failure);
+        }
+    }
+
+    /**
+     * 引数として渡された {@code socket} で他のデーモンが待ち受けているか判定します。
+     *
+     * @param socket ソケットファイルのパス
+     * @return 他のデーモンが待ち受けている場合は {@code true} 、それ以外は {@code false}
+     */
+    private static boolean isListening(Path socket) {
+        try {
+            UnixDomainSockets.connect(socket).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 接続毎の処理を実行するエグゼキューターを生成し返却します。
+     * <p>
+     * 実行環境が仮想スレッドに対応している場合は接続毎に仮想スレッドを生成するエグゼキューターを返却します。
+     * 対応していない場合は必要に応じてデーモンスレッドを生成するスレッドプールを返却します。
+     *
+     * @return 接続毎の処理を実行するエグゼキューター
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable, "sql-formatter-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 停止されるまで接続を受け付け、接続毎の処理をエグゼキューターへ渡します。
+     * <p>
+     * 接続の受け付けに失敗した場合はデーモンを停止し、原因となった例外を {@link #await()} メソッドの呼び出し元へ送出させます。
+     */
+    private void accept() {
+        try {
+            while (true) {
+                final SocketChannel channel = this.server.accept();
+                this.executor.execute(() -> this.serve(channel));
+            }
+        } catch (ClosedChannelException e) {
+            // closed by close()
+        } catch (IOException e) {
+            this.failure = e;
+        } finally {
+            this.closeQuietly();
+        }
+    }
+
+    /**
+     * 引数として渡された {@code channel} から要求を順に読み込み、整形結果を応答します。
+     * <p>
+     * 整形に失敗した場合はエラーメッセージを応答し、接続を維持したまま次の要求を待ち受けます。 クライアントが接続を閉じた場合は処理を終了します。
+     *
+     * @param channel クライアントと接続したチャネル
+     */
+    private void serve(SocketChannel channel) {
+        try (SocketChannel client = channel) {
+
+            final DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+            final DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(client)));
+
+            while (true) {
+
+                final int indent;
+
+                try {
+                    indent = input.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+
+                final String sql = FormatterProtocol.readString(input);
+
+                try {
+                    final String formattedSql = this.formatterOf(indent).format(sql);
+                    output.writeByte(FormatterProtocol.STATUS_OK);
+                    FormatterProtocol.writeString(output, formattedSql);
+                } catch (RuntimeException e) {
+                    output.writeByte(FormatterProtocol.STATUS_ERROR);
+                    FormatterProtocol.writeString(output, e.toString());
+                }
+
+                output.flush();
+            }
+        } catch (IOException e) {
+            // the client went away or sent a broken request
+        }
+    }
+
+    /**
+     * 引数として渡された {@code indent} のインデント数で整形するフォーマッタを返却します。
+     *
+     * @param indent インデント数。負数の場合はデフォルトのインデント数
+     * @return フォーマッタ
+     */
+    private SqlFormatter formatterOf(int indent) {
+        return this.formatters.computeIfAbsent(indent < 0 ? -1 : indent, SqlFormatter::create);
+    }
+
+    /**
+     * デーモンを停止し、例外を送出せずにソケットファイルを削除します。
+     */
+    private void closeQuietly() {
+        try {
+            this.close();
+        } catch (IOException e) {
+            // already reported by the caller of close()
+        }
+    }
+
+    /**
+     * 要求の待ち受けを停止し、処理中の接続を閉じた上でソケットファイルを削除します。
+     *
+     * @throws IOException ソケットファイルの削除に失敗した場合
+     */
+    @Override
+    public synchronized void close() throws IOException {
+
+        if (this.terminated.getCount() == 0) {
+            return;
+        }
+
+        try {
+            if (this.server != null) {
+                this.server.close();
+                this.executor.shutdownNow();
+                Files.deleteIfExists(this.socket);
+            }
+        } finally {
+            this.terminated.countDown();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import lombok.NonNull;
+
+/**
+ * {@link FormatterDaemon} と {@link FormatterClient} の間で交換するメッセージの形式を定義したクラスです。
+ * <p>
+ * 要求はインデント数を表す4バイトの整数と整形対象のクエリで構成され、応答は処理結果を表す1バイトの状態と整形結果またはエラーメッセージで構成されます。
+ * 文字列は4バイトのバイト数とUTF-8で符号化したバイト列で表現されます。 1つの接続で複数の要求を順に送信することができます。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+final class FormatterProtocol {
+
+    /**
+     * 1つの文字列として受け付ける最大のバイト数
+     */
+    static final int MAXIMUM_STRING_SIZE = 1 << 26;
+
+    /**
+     * 状態: 整形に成功
+     */
+    static final byte STATUS_OK = 0;
+
+    /**
+     * 状態: 整形に失敗
+     */
+    static final byte STATUS_ERROR = 1;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private FormatterProtocol() {
+    }
+
+    /**
+     * 引数として渡された {@code value} をバイト数とUTF-8で符号化したバイト列として {@code output} へ書き込みます。
+     *
+     * @param output 出力先
+     * @param value  書き込む文字列
+     *
+     * @throws IOException 書き込みに失敗した場合、または {@code value} のバイト数が上限を超える場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    static void writeString(@NonNull DataOutputStream output, @NonNull String value) throws IOException {
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length > MAXIMUM_STRING_SIZE) {
+            throw new IOException(String.format("The message is too large: %d bytes", bytes.length));
+        }
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * {@code input} からバイト数とUTF-8で符号化したバイト列を読み込み、復号した文字列を返却します。
+     *
+     * @param input 読み込み元
+     * @return 読み込んだ文字列
+     *
+     * @throws IOException 読み込みに失敗した場合、またはバイト数が不正な場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    static String readString(@NonNull DataInputStream input) throws IOException {
+
+        final int size = input.readInt();
+
+        if (size < 0 || size > MAXIMUM_STRING_SIZE) {
+            throw new IOException(String.format("Invalid message size: %d bytes", size));
+        }
+
+        final byte[] bytes = new byte[size];
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
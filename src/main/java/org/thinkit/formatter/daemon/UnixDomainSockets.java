@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.daemon;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+import lombok.NonNull;
+
+/**
+ * Unixドメインソケットのチャネルを生成するユーティリティクラスです。
+ * <p>
+ * Unixドメインソケットは Java 16 以降で利用可能な {@code java.net.UnixDomainSocketAddress} を使用するため、
+ * それ以前のバージョンでもコンパイルできるようリフレクションを経由して呼び出されます。 実行環境が Java 16 より前の場合は
+ * {@link UnsupportedOperationException} が発生します。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+final class UnixDomainSockets {
+
+    /**
+     * {@code UnixDomainSocketAddress.of(Path)} メソッド。実行環境が対応していない場合は {@code null}
+     */
+    private static final Method ADDRESS_FACTORY = findAddressFactory();
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private UnixDomainSockets() {
+    }
+
+    /**
+     * {@code UnixDomainSocketAddress.of(Path)} メソッドを検索し返却します。
+     *
+     * @return {@code UnixDomainSocketAddress.of(Path)} メソッド。実行環境が対応していない場合は {@code null}
+     */
+    private static Method findAddressFactory() {
+        try {
+            return Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 実行環境がUnixドメインソケットに対応しているか判定します。
+     *
+     * @return 実行環境がUnixドメインソケットに対応している場合は {@code true} 、それ以外は {@code false}
+     */
+    public static boolean isSupported() {
+        return ADDRESS_FACTORY != null;
+    }
+
+    /**
+     * 引数として渡された {@code path} を指すUnixドメインソケットのアドレスを生成し返却します。
+     *
+     * @param path ソケットファイルのパス
+     * @return Unixドメインソケットのアドレス
+     *
+     * @throws UnsupportedOperationException 実行環境がUnixドメインソケットに対応していない場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static SocketAddress addressOf(@NonNull Path path) {
+        requireSupported();
+
+        try {
+            return (SocketAddress) ADDRESS_FACTORY.invoke(null, path);
+        } catch (IllegalAccessException e) {
+            throw new UnsupportedOperationException(e);
+        } catch (InvocationTargetException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * 引数として渡された {@code path} で待ち受けるUnixドメインソケットのサーバーチャネルを生成し返却します。
+     *
+     * @param path ソケットファイルのパス
+     * @return {@code path} に割り当てられたサーバーチャネル
+     *
+     * @throws IOException                   チャネルの生成または割り当てに失敗した場合
+     * @throws UnsupportedOperationException 実行環境がUnixドメインソケットに対応していない場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static ServerSocketChannel bind(@NonNull Path path) throws IOException {
+        requireSupported();
+
+        final ServerSocketChannel server;
+
+        try {
+            server = (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class)
+                    .invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new UnsupportedOperationException(e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw rethrow(e.getCause());
+        }
+
+        try {
+            return server.bind(addressOf(path));
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 引数として渡された {@code path} で待ち受けるUnixドメインソケットへ接続したチャネルを返却します。
+     *
+     * @param path ソケットファイルのパス
+     * @return 接続したチャネル
+     *
+     * @throws IOException                   接続に失敗した場合
+     * @throws UnsupportedOperationException 実行環境がUnixドメインソケットに対応していない場合
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static SocketChannel connect(@NonNull Path path) throws IOException {
+        return SocketChannel.open(addressOf(path));
+    }
+
+    /**
+     * 実行環境がUnixドメインソケットに対応していることを検証します。
+     *
+     * @throws UnsupportedOperationException 実行環境がUnixドメインソケットに対応していない場合
+     */
+    private static void requireSupported() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later");
+        }
+    }
+
+    /**
+     * リフレクションで呼び出したメソッドから送出された {@code cause} を非検査例外として返却します。
+     *
+     * @param cause 送出された例外
+     * @return 非検査例外
+     */
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+
+        return new IllegalStateException(cause);
+    }
+}
\ No newline at end of file
@@ -87,13 +87,6 @@ final class AlterTableFormatter implements Formatter {
 
             if (tokenizer.isQuote()) {
                 appender.appendToken();
-
-                while (tokenizer.next()) {
-                    appender.appendToken();
-                    if (tokenizer.isQuote()) {
-                        break;
-                    }
-                }
             } else if (tokenizer.isBreak()) {
 
                 if (!StartClause.COLUMN.getTag().equals(tokenizer.getLowercaseToken())) {
@@ -102,13 +102,8 @@ final class CommentOnFormatter implements Formatter {
 
                 appender.incrementIndent().appendNewline().appendToken().decrementIndent();
 
-                while (tokenizer.next()) {
-                    appender.appendToken();
-
-                    if (tokenizer.isQuote()) {
-                        appender.decrementIndent();
-                        break;
-                    }
+                if (tokenizer.isTerminated()) {
+                    appender.decrementIndent();
                 }
             } else if (this.isWhitespace(tokenizer.getToken())) {
                 if (!startLine) {
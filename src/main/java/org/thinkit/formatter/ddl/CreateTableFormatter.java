@@ -119,8 +119,6 @@ final class CreateTableFormatter implements Formatter {
                 if (!startLine) {
                     appender.appendToken();
                 }
-            } else if (tokenizer.isQuote()) {
-                appender.appendToken();
             } else {
                 appender.appendToken();
                 startLine = false;
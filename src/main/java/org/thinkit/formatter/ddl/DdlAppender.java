@@ -16,14 +16,12 @@ package org.thinkit.formatter.ddl;
 
 import org.thinkit.common.Precondition;
 import org.thinkit.common.exception.LogicException;
+import org.thinkit.formatter.NewlineTable;
 import org.thinkit.formatter.common.Indent;
 import org.thinkit.formatter.common.Indentable;
-import org.thinkit.formatter.common.Line;
-import org.thinkit.formatter.common.Newline;
 import org.thinkit.formatter.common.Tokenizable;
+import org.thinkit.formatter.content.DefaultIndentItemSnapshot;
 import org.thinkit.formatter.content.ddl.entity.DdlDefaultIndentItem;
-import org.thinkit.formatter.content.ddl.rule.DdlDefaultIndentItemCollector;
-import org.thinkit.framework.content.rule.RuleInvoker;
 
 import lombok.EqualsAndHashCode;
 import lombok.NonNull;
@@ -56,9 +54,9 @@ final class DdlAppender {
     private Indentable indent;
 
     /**
-     * 改行
+     * 改行コードとインデントの表
      */
-    private Line newline;
+    private NewlineTable newlineTable;
 
     /**
      * デフォルトコンストラクタ
@@ -155,15 +153,15 @@ final class DdlAppender {
             appender.ddlTokenizer = this.ddlTokenizer;
 
             if (this.indent < 0) {
-                final DdlDefaultIndentItem defaultIndentItem = RuleInvoker.of(DdlDefaultIndentItemCollector.of())
-                        .invoke();
+                final DdlDefaultIndentItem defaultIndentItem = DefaultIndentItemSnapshot.get()
+                        .getDdlDefaultIndentItem();
                 appender.indent = Indent.builder().withIndent(defaultIndentItem.getIndent())
                         .withIndentType(defaultIndentItem.getIndentType()).build();
             } else {
                 appender.indent = Indent.builder().withIndent(this.indent).build();
             }
 
-            appender.newline = Newline.of(appender.indent);
+            appender.newlineTable = NewlineTable.of(appender.indent.getIndent());
 
             return appender;
         }
@@ -183,7 +181,7 @@ final class DdlAppender {
     }
 
     /**
-     * {@link Newline} クラスから改行コードを取得し文字列へ追加します。
+     * {@link NewlineTable} クラスから改行コードと現在のインデントを取得し文字列へ一括で追加します。
      * <p>
      * この {@link DdlAppender#appendNewLine()}
      * メソッドは自分自身のインスタンスを返却するため、後続処理をメソッドチェーンの形式で行うことができます。
@@ -191,7 +189,7 @@ final class DdlAppender {
      * @return 自分自身のインスタンス
      */
     public DdlAppender appendNewline() {
-        this.sql.append(this.newline.create());
+        this.newlineTable.appendTo(this.sql, this.indent.getIndentFactor());
         return this;
     }
 
@@ -14,7 +14,9 @@
 
 package org.thinkit.formatter.ddl;
 
+import org.thinkit.api.catalog.BiCatalog;
 import org.thinkit.common.exception.IllegalNumberFoundException;
+import org.thinkit.formatter.StatementClassifier;
 import org.thinkit.formatter.catalog.ddl.DdlStatement;
 import org.thinkit.formatter.common.Formatter;
 
@@ -79,17 +81,16 @@ public final class DdlFormatter implements Formatter {
     @Override
     public String format(@NonNull final String sql) {
 
-        final String trimmedSql = sql.trim();
-        final String lowercaseSql = sql.toLowerCase();
+        final BiCatalog<?, String> statement = StatementClassifier.classify(sql, 0);
 
-        if (lowercaseSql.startsWith(DdlStatement.CREATE_TABLE.getTag())) {
+        if (statement == DdlStatement.CREATE_TABLE) {
             return CreateTableFormatter.withIndent(this.indent).format(sql);
-        } else if (lowercaseSql.startsWith(DdlStatement.ALTER_TABLE.getTag())) {
+        } else if (statement == DdlStatement.ALTER_TABLE) {
             return AlterTableFormatter.withIndent(this.indent).format(sql);
-        } else if (lowercaseSql.startsWith(DdlStatement.COMMENT_ON.getTag())) {
+        } else if (statement == DdlStatement.COMMENT_ON) {
             return CommentOnFormatter.withIndent(this.indent).format(sql);
         }
 
-        return trimmedSql;
+        return sql.trim();
     }
 }
\ No newline at end of file
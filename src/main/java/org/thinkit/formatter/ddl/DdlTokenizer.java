@@ -15,14 +15,13 @@
 package org.thinkit.formatter.ddl;
 
 import java.util.Locale;
-import java.util.StringTokenizer;
 
 import org.thinkit.api.catalog.BiCatalog;
-import org.thinkit.formatter.catalog.ddl.Constraint;
+import org.thinkit.formatter.StatementClassifier;
+import org.thinkit.formatter.catalog.KeywordTable;
 import org.thinkit.formatter.catalog.ddl.DdlStatement;
 import org.thinkit.formatter.catalog.ddl.DdlTokenDelimiter;
 import org.thinkit.formatter.catalog.ddl.EndClause;
-import org.thinkit.formatter.catalog.ddl.StartClause;
 import org.thinkit.formatter.common.Tokenizable;
 
 import lombok.EqualsAndHashCode;
@@ -32,6 +31,9 @@ import lombok.ToString;
 
 /**
  * SQLにおけるDDLのクエリトークンを管理する処理と状態を定義したクラスです。
+ * <p>
+ * 引用符 {@code '} 、 {@code "} 及び開始角括弧 {@code [} から始まるトークンは、対応する終了記号までを1つのトークンとして扱います。
+ * 終了記号は {@link String#indexOf(int, int)} で一括して検索され、2つ連続した終了記号はリテラル内の1文字として扱われます。
  *
  * @author Kato Shinya
  * @since 1.0
@@ -42,9 +44,26 @@ import lombok.ToString;
 final class DdlTokenizer implements Tokenizable {
 
     /**
-     * トークナイザー
+     * 処理対象のSQL
      */
-    private StringTokenizer tokenizer;
+    @ToString.Exclude
+    private String sql;
+
+    /**
+     * 区切り文字
+     */
+    private String delimiters;
+
+    /**
+     * 次に走査する位置
+     */
+    private int position;
+
+    /**
+     * 現在位置のトークンが終了しているかの可否
+     */
+    @Getter
+    private boolean terminated;
 
     /**
      * トークン
@@ -79,20 +98,22 @@ final class DdlTokenizer implements Tokenizable {
      */
     private DdlTokenizer(@NonNull String sql) {
 
-        final String lowercaseSql = sql.toLowerCase();
+        final BiCatalog<?, String> statement = StatementClassifier.classify(sql, 0);
 
-        if (lowercaseSql.startsWith(DdlStatement.CREATE_TABLE.getTag())) {
-            this.tokenizer = new StringTokenizer(sql, DdlTokenDelimiter.CREATE_TABLE.getTag(), true);
-        } else if (lowercaseSql.startsWith(DdlStatement.ALTER_TABLE.getTag())) {
-            this.tokenizer = new StringTokenizer(sql, DdlTokenDelimiter.ALTER_TABLE.getTag(), true);
-        } else if (lowercaseSql.startsWith(DdlStatement.COMMENT_ON.getTag())) {
-            this.tokenizer = new StringTokenizer(sql, DdlTokenDelimiter.COMMENT_ON.getTag(), true);
+        if (statement == DdlStatement.CREATE_TABLE) {
+            this.delimiters = DdlTokenDelimiter.CREATE_TABLE.getTag();
+        } else if (statement == DdlStatement.ALTER_TABLE) {
+            this.delimiters = DdlTokenDelimiter.ALTER_TABLE.getTag();
+        } else if (statement == DdlStatement.COMMENT_ON) {
+            this.delimiters = DdlTokenDelimiter.COMMENT_ON.getTag();
         } else {
             throw new IllegalArgumentException(String.format("Unsupported DDL query was given: %s", sql));
         }
 
+        this.sql = sql;
         this.token = "";
         this.lowercaseToken = "";
+        this.terminated = true;
     }
 
     /**
@@ -122,33 +143,104 @@ final class DdlTokenizer implements Tokenizable {
      * <p>
      * {@link DdlTokenizer#getToken()} <br>
      * {@link DdlTokenizer#getLowercaseToken()}
+     * <p>
+     * 引用符から始まるトークンは終了記号まで、終了記号が存在しない場合はSQLの末尾までを1つのトークンとします。
+     * 引用符から始まるトークンはキーワードと一致することがないため、小文字のトークンには開始記号のみが設定されます。
      *
      * @return {@link DdlTokenizer#next()} メソッドを実行した際にトークナイザから取得できるトークンが存在しない場合は
      *         {@code false} 、取得できるトークンが存在する場合は {@code true}
      */
     public boolean next() {
 
-        if (!this.tokenizer.hasMoreTokens()) {
+        if (this.position >= this.sql.length()) {
             return false;
         }
 
-        this.token = this.tokenizer.nextToken();
+        final int start = this.position;
+        final char character = this.sql.charAt(this.position++);
+        this.terminated = true;
+
+        if (this.delimiters.indexOf(character) >= 0) {
+            final char closeSymbol = getCloseSymbol(character);
+
+            if (closeSymbol != 0) {
+                this.skipQuoted(closeSymbol);
+                this.token = this.sql.substring(start, this.position);
+                this.lowercaseToken = String.valueOf(character);
+                return true;
+            }
+        } else {
+            while (this.position < this.sql.length() && this.delimiters.indexOf(this.sql.charAt(this.position)) < 0) {
+                this.position++;
+            }
+        }
+
+        this.token = this.sql.substring(start, this.position);
         this.lowercaseToken = this.token.toLowerCase(Locale.ROOT);
 
         return true;
     }
 
+    /**
+     * 引数として渡された {@code closeSymbol} で終了する引用符の内部を読み飛ばし、走査位置を終了記号の直後へ進めます。
+     * <p>
+     * 2つ連続した終了記号はリテラル内の文字として読み飛ばされます。終了記号が存在しない場合は走査位置をSQLの末尾へ進めます。
+     *
+     * @param closeSymbol 終了記号
+     */
+    private void skipQuoted(char closeSymbol) {
+
+        while (true) {
+
+            final int close = this.sql.indexOf(closeSymbol, this.position);
+
+            if (close < 0) {
+                this.position = this.sql.length();
+                this.terminated = false;
+                return;
+            }
+
+            this.position = close + 1;
+
+            if (this.position >= this.sql.length() || this.sql.charAt(this.position) != closeSymbol) {
+                return;
+            }
+
+            this.position++;
+        }
+    }
+
+    /**
+     * 引数として渡された {@code character} から始まる引用符の終了記号を返却します。
+     *
+     * @param character 開始記号
+     * @return {@code character} に対応する終了記号。 {@code character} が引用符の開始記号ではない場合は {@code 0}
+     */
+    private static char getCloseSymbol(char character) {
+        switch (character) {
+            case '\'':
+                return '\'';
+            case '"':
+                return '"';
+            case '[':
+                return ']';
+            default:
+                return 0;
+        }
+    }
+
     public boolean isBreak() {
+
+        final int category = KeywordTable.lookup(this.lowercaseToken);
+
         return DdlStatement.DROP.getTag().equals(this.lowercaseToken)
-                || BiCatalog.contains(StartClause.class, this.lowercaseToken)
+                || KeywordTable.contains(category, KeywordTable.DDL_START_CLAUSE)
                 || (!EndClause.TO.getTag().equals(this.lowercaseToken)
-                        && BiCatalog.contains(EndClause.class, this.lowercaseToken))
-                || BiCatalog.contains(Constraint.class, this.lowercaseToken);
-
+                        && KeywordTable.contains(category, KeywordTable.DDL_END_CLAUSE))
+                || KeywordTable.contains(category, KeywordTable.DDL_CONSTRAINT);
     }
 
     public boolean isQuote() {
-        return "\"".equals(this.token) || "`".equals(this.token) || "]".equals(this.token) || "[".equals(this.token)
-                || "'".equals(this.token);
+        return "`".equals(this.token) || (!this.token.isEmpty() && "\"[]'".indexOf(this.token.charAt(0)) >= 0);
     }
 }
\ No newline at end of file
@@ -16,14 +16,11 @@ package org.thinkit.formatter.dml;
 
 import org.thinkit.common.Precondition;
 import org.thinkit.common.exception.LogicException;
+import org.thinkit.formatter.NewlineTable;
 import org.thinkit.formatter.common.Indent;
 import org.thinkit.formatter.common.Indentable;
-import org.thinkit.formatter.common.Line;
-import org.thinkit.formatter.common.Newline;
-import org.thinkit.formatter.common.Tokenizable;
+import org.thinkit.formatter.content.DefaultIndentItemSnapshot;
 import org.thinkit.formatter.content.dml.entity.DmlDefaultIndentItem;
-import org.thinkit.formatter.content.dml.rule.DmlDefaultIndentItemCollector;
-import org.thinkit.framework.content.rule.RuleInvoker;
 
 import lombok.EqualsAndHashCode;
 import lombok.NonNull;
@@ -32,6 +29,8 @@ import lombok.NonNull;
  * {@link DmlTokenizer} クラスと連動してDMLクエリを生成するアペンダークラスです。
  * <p>
  * 生成した文字列は {@link #toString()} メソッドを使用することで取得することができます。
+ * <p>
+ * {@link #reset(int)} メソッドで初期化することで、内部の文字列バッファとインデントを次のクエリの整形に再利用することができます。
  *
  * @author Kato Shinya
  * @since 1.0
@@ -48,7 +47,7 @@ final class DmlAppender {
     /**
      * DMLトークナイザ
      */
-    private Tokenizable dmlTokenizer;
+    private DmlTokenizer dmlTokenizer;
 
     /**
      * インデント
@@ -56,9 +55,19 @@ final class DmlAppender {
     private Indentable indent;
 
     /**
-     * 改行
+     * 改行コードとインデントの表
+     */
+    private NewlineTable newlineTable;
+
+    /**
+     * インデントの生成時に指定されたインデント数
      */
-    private Line newline;
+    private int indentSetting;
+
+    /**
+     * インデントの生成時に使用したDML既定インデント項目
+     */
+    private DmlDefaultIndentItem defaultIndentItem;
 
     /**
      * デフォルトコンストラクタ
@@ -96,7 +105,7 @@ final class DmlAppender {
         /**
          * DMLトークナイザ
          */
-        private Tokenizable dmlTokenizer;
+        private DmlTokenizer dmlTokenizer;
 
         /**
          * インデント数
@@ -116,7 +125,7 @@ final class DmlAppender {
          *
          * @exception NullPointerException 引数として {@code null} が渡された場合
          */
-        public Builder register(@NonNull Tokenizable dmlTokenizer) {
+        public Builder register(@NonNull DmlTokenizer dmlTokenizer) {
             this.dmlTokenizer = dmlTokenizer;
             return this;
         }
@@ -134,17 +143,17 @@ final class DmlAppender {
         }
 
         /**
-         * {@link #register(Tokenizable)} メソッドと {@link #withIndent(int)} メソッドで設定された値を基に
+         * {@link #register(DmlTokenizer)} メソッドと {@link #withIndent(int)} メソッドで設定された値を基に
          * {@link DmlAppender} クラスの新しいインスタンスを生成し返却します。
          * <p>
-         * {@link #register(Tokenizable)} メソッドが呼び出されていない場合、または
-         * {@link #register(Tokenizable)} メソッドで設定された値が {@code null} の場合は
+         * {@link #register(DmlTokenizer)} メソッドが呼び出されていない場合、または
+         * {@link #register(DmlTokenizer)} メソッドで設定された値が {@code null} の場合は
          * {@link NullPointerException} が実行時に必ず発生します。
          *
          * @return {@link DmlAppender} クラスの新しいインスタンス
          *
-         * @throws LogicException {@link #register(Tokenizable)} メソッドが呼び出されていない場合、または
-         *                        {@link #register(Tokenizable)} メソッドで設定された値が
+         * @throws LogicException {@link #register(DmlTokenizer)} メソッドが呼び出されていない場合、または
+         *                        {@link #register(DmlTokenizer)} メソッドで設定された値が
          *                        {@code null} の場合
          */
         public DmlAppender build() {
@@ -154,36 +163,82 @@ final class DmlAppender {
             appender.sql = new StringBuilder();
             appender.dmlTokenizer = this.dmlTokenizer;
 
-            if (this.indent < 0) {
-                final DmlDefaultIndentItem defaultIndentItem = RuleInvoker.of(DmlDefaultIndentItemCollector.of())
-                        .invoke();
-                appender.indent = Indent.builder().withIndent(defaultIndentItem.getIndent())
-                        .withIndentType(defaultIndentItem.getIndentType()).build();
-            } else {
-                appender.indent = Indent.builder().withIndent(this.indent).build();
-            }
+            return appender.reset(this.indent);
+        }
+    }
+
+    /**
+     * 生成した文字列を破棄し、引数として渡された {@code indent} のインデント数でインデントを初期化します。
+     * <p>
+     * インデント数と既定インデント項目が前回から変更されていない場合、インデントは再生成されずに初期化のみ行われます。
+     * 負数が渡された場合は既定インデント項目のインデント数とインデント種別が使用されます。
+     * <p>
+     * この {@link DmlAppender#reset(int)}
+     * メソッドは自分自身のインスタンスを返却するため、後続処理をメソッドチェーンの形式で行うことができます。
+     *
+     * @param indent インデント数
+     * @return 自分自身のインスタンス
+     */
+    public DmlAppender reset(int indent) {
+
+        this.sql.setLength(0);
+
+        final DmlDefaultIndentItem defaultIndentItem = indent < 0
+                ? DefaultIndentItemSnapshot.get().getDmlDefaultIndentItem()
+                : null;
+
+        if (this.indent != null && this.indentSetting == indent && this.defaultIndentItem == defaultIndentItem) {
+            this.indent.reset();
+            return this;
+        }
+
+        if (defaultIndentItem != null) {
+            this.indent = Indent.builder().withIndent(defaultIndentItem.getIndent())
+                    .withIndentType(defaultIndentItem.getIndentType()).build();
+        } else {
+            this.indent = Indent.builder().withIndent(indent).build();
+        }
+
+        this.newlineTable = NewlineTable.of(this.indent.getIndent());
+        this.indentSetting = indent;
+        this.defaultIndentItem = defaultIndentItem;
 
-            appender.newline = Newline.of(appender.indent);
+        return this;
+    }
 
-            return appender;
+    /**
+     * 生成した文字列を破棄します。文字列バッファの容量が {@code maximumCapacity} を超えている場合は文字列バッファも破棄し、
+     * 大きなクエリの整形で拡張された領域を保持し続けないようにします。
+     *
+     * @param maximumCapacity 保持する文字列バッファの最大容量
+     */
+    public void release(int maximumCapacity) {
+        if (this.sql.capacity() > maximumCapacity) {
+            this.sql = new StringBuilder();
+        } else {
+            this.sql.setLength(0);
         }
     }
 
     /**
      * 登録したトークナイザーから現在位置のトークンを取得し文字列へ追加します。
      * <p>
+     * トークンは文字列として切り出されず、処理対象のSQLの該当範囲から直接追加されます。
+     * <p>
      * この {@link DmlAppender#appendToken()}
      * メソッドは自分自身のインスタンスを返却するため、後続処理をメソッドチェーンの形式で行うことができます。
      *
      * @return 自分自身のインスタンス
      */
     public DmlAppender appendToken() {
-        this.sql.append(this.dmlTokenizer.getToken());
+        this.sql.append(this.dmlTokenizer.getSource(), this.dmlTokenizer.getStart(), this.dmlTokenizer.getEnd());
         return this;
     }
 
     /**
-     * {@link DmlIndenter} クラスから改行コードを取得し文字列へ追加します。
+     * 改行コードと現在のインデントを文字列へ追加します。
+     * <p>
+     * 改行コードとインデントは {@link NewlineTable} から一時的な文字列を生成せずに文字列バッファへ一括で追加されます。
      * <p>
      * この {@link DmlAppender#appendNewLine()}
      * メソッドは自分自身のインスタンスを返却するため、後続処理をメソッドチェーンの形式で行うことができます。
@@ -191,7 +246,7 @@ final class DmlAppender {
      * @return 自分自身のインスタンス
      */
     public DmlAppender appendNewLine() {
-        this.sql.append(this.newline.create());
+        this.newlineTable.appendTo(this.sql, this.indent.getIndentFactor());
         return this;
     }
 
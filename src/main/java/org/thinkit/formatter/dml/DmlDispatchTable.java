@@ -0,0 +1,299 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.dml;
+
+import java.util.Arrays;
+
+import org.thinkit.formatter.catalog.KeywordTable;
+import org.thinkit.formatter.catalog.dml.EndClause;
+import org.thinkit.formatter.catalog.dml.LogicalExpression;
+
+/**
+ * DMLクエリのトークンの種別と最後に取得した空白以外のトークンの種別の組み合わせから、 {@link DmlFormatter}
+ * クラスが実行する処理を決定する表クラスです。
+ * <p>
+ * トークンの種別は {@link DmlTokenizer} クラスでトークン毎に1度だけ判定されます。
+ * 処理は種別の組み合わせを添字とする配列に事前に展開されるため、整形時は1度の配列参照で決定されます。
+ * <p>
+ * 表は優先順位の高い規則から順に登録され、既に処理が登録されている組み合わせは後の規則で上書きされません。
+ * 新しい句を追加する場合は、種別と規則を優先順位に応じた位置へ追加します。
+ * 先に登録された規則によって全ての組み合わせが登録済みの規則は決して実行されないため、表の生成時に例外を送出してクラスの初期化を失敗させます。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+final class DmlDispatchTable {
+
+    /**
+     * 種別: その他のトークン
+     */
+    static final int KIND_OTHER = 0;
+
+    /**
+     * 種別: 空白
+     */
+    static final int KIND_WHITESPACE = 1;
+
+    /**
+     * 種別: カンマ
+     */
+    static final int KIND_COMMA = 2;
+
+    /**
+     * 種別: 開始括弧
+     */
+    static final int KIND_START_PARENTHESIS = 3;
+
+    /**
+     * 種別: 終了括弧
+     */
+    static final int KIND_END_PARENTHESIS = 4;
+
+    /**
+     * 種別: DML命令
+     */
+    static final int KIND_STATEMENT = 5;
+
+    /**
+     * 種別: 開始句
+     */
+    static final int KIND_START_CLAUSE = 6;
+
+    /**
+     * 種別: {@code "on"} 以外の終了句
+     */
+    static final int KIND_END_CLAUSE = 7;
+
+    /**
+     * 種別: {@code "on"} 句
+     */
+    static final int KIND_ON = 8;
+
+    /**
+     * 種別: {@code "case"} 以外の論理式
+     */
+    static final int KIND_LOGICAL_EXPRESSION = 9;
+
+    /**
+     * 種別の数
+     */
+    private static final int KIND_COUNT = 10;
+
+    /**
+     * 処理: その他のステートメント
+     */
+    static final int ACTION_OTHER_STATEMENTS = 0;
+
+    /**
+     * 処理: DML命令
+     */
+    static final int ACTION_DML_STATEMENT = 1;
+
+    /**
+     * 処理: 開始句
+     */
+    static final int ACTION_START_CLAUSE = 2;
+
+    /**
+     * 処理: {@code "on"} 句以降のカンマ
+     */
+    static final int ACTION_AFTER_ON_STATEMENT = 3;
+
+    /**
+     * 処理: {@code "on"} 句
+     */
+    static final int ACTION_ON_STATEMENT = 4;
+
+    /**
+     * 処理: 終了句
+     */
+    static final int ACTION_END_CLAUSE = 5;
+
+    /**
+     * 処理: フィールド項目の区切り。フィールドを改行しない場合はその他のステートメントとして処理されます。
+     */
+    static final int ACTION_FIELD_ITEM = 6;
+
+    /**
+     * 処理: 開始括弧
+     */
+    static final int ACTION_START_PARENTHESIS = 7;
+
+    /**
+     * 処理: 終了括弧
+     */
+    static final int ACTION_END_PARENTHESIS = 8;
+
+    /**
+     * 処理: {@code "case"} 以外の論理式
+     */
+    static final int ACTION_LOGICAL_EXCEPT_CASE = 9;
+
+    /**
+     * 処理: 空白
+     */
+    static final int ACTION_WHITESPACE = 10;
+
+    /**
+     * 全ての種別と一致することを表す値
+     */
+    private static final int ANY = -1;
+
+    /**
+     * 処理が登録されていないことを表す値
+     */
+    private static final int UNASSIGNED = -1;
+
+    /**
+     * 種別の組み合わせ毎の処理
+     */
+    private static final int[] ACTIONS = createActions();
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private DmlDispatchTable() {
+    }
+
+    /**
+     * 種別の組み合わせ毎の処理を優先順位の高い規則から順に登録した表を生成し返却します。
+     *
+     * @return 種別の組み合わせ毎の処理
+     *
+     * @throws IllegalStateException 先に登録された規則によって全ての組み合わせが登録済みの規則がある場合
+     */
+    private static int[] createActions() {
+
+        final int[] actions = new int[KIND_COUNT * KIND_COUNT];
+        Arrays.fill(actions, UNASSIGNED);
+
+        register(actions, ACTION_DML_STATEMENT, KIND_STATEMENT, ANY);
+        register(actions, ACTION_START_CLAUSE, KIND_START_CLAUSE, ANY);
+        register(actions, ACTION_AFTER_ON_STATEMENT, KIND_COMMA, KIND_ON);
+        register(actions, ACTION_ON_STATEMENT, KIND_ON, ANY);
+        register(actions, ACTION_END_CLAUSE, KIND_END_CLAUSE, ANY);
+        register(actions, ACTION_FIELD_ITEM, KIND_COMMA, ANY);
+        register(actions, ACTION_START_PARENTHESIS, KIND_START_PARENTHESIS, ANY);
+        register(actions, ACTION_END_PARENTHESIS, KIND_END_PARENTHESIS, ANY);
+        register(actions, ACTION_LOGICAL_EXCEPT_CASE, KIND_LOGICAL_EXPRESSION, ANY);
+        register(actions, ACTION_WHITESPACE, KIND_WHITESPACE, ANY);
+        register(actions, ACTION_OTHER_STATEMENTS, ANY, ANY);
+
+        return actions;
+    }
+
+    /**
+     * 引数として渡された {@code kind} と {@code lastKind} の組み合わせのうち、処理が登録されていない組み合わせへ {@code action}
+     * を登録します。
+     *
+     * @param actions  種別の組み合わせ毎の処理
+     * @param action   登録する処理
+     * @param kind     トークンの種別。全ての種別と一致させる場合は {@link #ANY}
+     * @param lastKind 最後に取得した空白以外のトークンの種別。全ての種別と一致させる場合は {@link #ANY}
+     *
+     * @throws IllegalStateException 全ての組み合わせに先に登録された規則の処理が登録済みの場合
+     */
+    private static void register(int[] actions, int action, int kind, int lastKind) {
+
+        boolean registered = false;
+
+        for (int i = 0; i < KIND_COUNT; i++) {
+            for (int j = 0; j < KIND_COUNT; j++) {
+                if ((kind == ANY || kind == i) && (lastKind == ANY || lastKind == j)
+                        && actions[i * KIND_COUNT + j] == UNASSIGNED) {
+                    actions[i * KIND_COUNT + j] = action;
+                    registered = true;
+                }
+            }
+        }
+
+        if (!registered) {
+            throw new IllegalStateException(String.format(
+                    "The rule of action %d for kind %d after kind %d is shadowed by the rules registered before it",
+                    action, kind, lastKind));
+        }
+    }
+
+    /**
+     * 引数として渡された {@code kind} と {@code lastKind} の組み合わせに対する処理を返却します。
+     *
+     * @param kind     トークンの種別
+     * @param lastKind 最後に取得した空白以外のトークンの種別
+     * @return 種別の組み合わせに対する処理
+     */
+    static int actionOf(int kind, int lastKind) {
+        return ACTIONS[kind * KIND_COUNT + lastKind];
+    }
+
+    /**
+     * 引数として渡された {@code source} の {@code start} から {@code end} の直前までの範囲にあるトークンの種別を返却します。
+     *
+     * @param source   トークンを含む文字列
+     * @param start    トークンの開始位置
+     * @param end      トークンの終了位置
+     * @param category トークンが属するキーワードの分類
+     * @return トークンの種別
+     */
+    static int kindOf(CharSequence source, int start, int end, int category) {
+
+        if (category == KeywordTable.NONE) {
+            return end - start == 1 ? kindOf(source.charAt(start)) : KIND_OTHER;
+        } else if (KeywordTable.contains(category, KeywordTable.DML_STATEMENT)) {
+            return KIND_STATEMENT;
+        } else if (KeywordTable.contains(category, KeywordTable.DML_START_CLAUSE)) {
+            return KIND_START_CLAUSE;
+        } else if (KeywordTable.contains(category, KeywordTable.DML_END_CLAUSE)) {
+            if (KeywordTable.matches(EndClause.ON.getTag(), source, start, end)) {
+                return KIND_ON;
+            }
+
+            return KIND_END_CLAUSE;
+        } else if (KeywordTable.contains(category, KeywordTable.DML_LOGICAL_EXPRESSION)) {
+            if (KeywordTable.matches(LogicalExpression.CASE.getTag(), source, start, end)) {
+                return KIND_OTHER;
+            }
+
+            return KIND_LOGICAL_EXPRESSION;
+        }
+
+        return KIND_OTHER;
+    }
+
+    /**
+     * 引数として渡された1文字のトークンの種別を返却します。
+     *
+     * @param character 1文字のトークン
+     * @return トークンの種別
+     */
+    private static int kindOf(char character) {
+        switch (character) {
+            case ' ':
+            case '\n':
+            case '\r':
+            case '\f':
+            case '\t':
+                return KIND_WHITESPACE;
+            case ',':
+                return KIND_COMMA;
+            case '(':
+                return KIND_START_PARENTHESIS;
+            case ')':
+                return KIND_END_PARENTHESIS;
+            default:
+                return KIND_OTHER;
+        }
+    }
+}
\ No newline at end of file
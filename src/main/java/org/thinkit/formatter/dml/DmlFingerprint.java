@@ -0,0 +1,239 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package org.thinkit.formatter.dml;
+
+import org.thinkit.formatter.catalog.KeywordTable;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * SQLにおけるDMLクエリのリテラルを {@code ?} へ置き換え、空白を正規化した形式とそのハッシュ値を表現するクラスです。
+ * <p>
+ * 文字列リテラルと数値リテラルは {@code ?} へ置き換えられ、連続する空白は1つの半角空白へ、先頭と末尾の空白は除去されます。
+ * {@link KeywordTable} に登録されたキーワードは小文字へ変換されるため、 {@code SELECT * FROM t} と {@code select * from t} は同じ形式となります。
+ * リテラルの判定は {@link DmlShape} クラスと同じ規則に従い、指数表記、16進数表記及び小数点から始まる小数も数値リテラルとして扱います。
+ * キーワード以外の識別子と、二重引用符や角括弧で囲まれた識別子は記述されたまま残ります。符号は減算の演算子と区別できないためリテラルに含めず、 {@code x = -17} は
+ * {@code x = -?} となります。そのため {@code x = 17} とは異なる形式となります。
+ * リテラルのみが異なるクエリは同じ形式となるため、メトリクスの集計キーや個人情報を含まないログの出力に使用できます。
+ * <p>
+ * 正規化、64ビットのハッシュ値及び括弧の最大の深さの計算は {@link DmlLexer} による1回の走査で行われます。 {@link #hash(CharSequence)}
+ * メソッドと {@link #measure(CharSequence)} メソッドは正規化した文字列を生成しません。ハッシュ値は正規化した形式のUTF-16の各文字に対するFNV-1aで、
+ * 実行環境に依存せず常に同じ値となります。
+ *
+ * <pre>
+ * DmlFingerprint.hash("select * from t where id = 1") == DmlFingerprint.hash("select * from t where id = 2");
+ * DmlFingerprint.of("select * from t  where name = 'Kato'").getNormalizedSql(); // select * from t where name = ?
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+@EqualsAndHashCode
+public final class DmlFingerprint {
+
+    /**
+     * リテラルのプレースホルダ
+     */
+    static final char LITERAL_PLACEHOLDER = '?';
+
+    /**
+     * FNV-1aの初期値
+     */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * FNV-1aの乗数
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * リテラルを置き換え、空白を正規化したクエリ。生成していない場合は {@code null}
+     */
+    @Getter
+    private String normalizedSql;
+
+    /**
+     * 正規化したクエリのハッシュ値
+     */
+    @Getter
+    private long hash;
+
+    /**
+     * 括弧の最大の深さ
+     */
+    @Getter
+    private int maxDepth;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private DmlFingerprint() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param sql       元のクエリ
+     * @param normalize 正規化した文字列を生成する場合は {@code true} 、それ以外は {@code false}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private DmlFingerprint(@NonNull CharSequence sql, boolean normalize) {
+
+        final StringBuilder normalizedSql = normalize ? new StringBuilder(sql.length()) : null;
+        this.scan(sql, normalizedSql);
+
+        if (normalize) {
+            this.normalizedSql = normalizedSql.toString();
+        }
+    }
+
+    /**
+     * 引数として渡された {@code sql} を正規化した形式とそのハッシュ値を表現する {@link DmlFingerprint} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param sql 元のクエリ
+     * @return {@link DmlFingerprint} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static DmlFingerprint of(@NonNull CharSequence sql) {
+        return new DmlFingerprint(sql, true);
+    }
+
+    /**
+     * 引数として渡された {@code sql} を正規化した形式のハッシュ値と括弧の最大の深さを、正規化した文字列を生成せずに計算した {@link DmlFingerprint}
+     * クラスの新しいインスタンスを生成し返却します。返却されたインスタンスの {@link #getNormalizedSql()} メソッドは {@code null} を返却します。
+     *
+     * @param sql 元のクエリ
+     * @return {@link DmlFingerprint} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static DmlFingerprint measure(@NonNull CharSequence sql) {
+        return new DmlFingerprint(sql, false);
+    }
+
+    /**
+     * 引数として渡された {@code sql} を正規化した形式のハッシュ値を、正規化した文字列を生成せずに計算し返却します。
+     *
+     * @param sql 元のクエリ
+     * @return 正規化したクエリのハッシュ値
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static long hash(@NonNull CharSequence sql) {
+        return new DmlFingerprint(sql, false).hash;
+    }
+
+    /**
+     * 引数として渡された {@code sql} を走査し、正規化した形式のハッシュ値と括弧の最大の深さを計算します。 {@code normalizedSql} が
+     * {@code null} ではない場合は正規化した形式を追加します。
+     *
+     * @param sql           元のクエリ
+     * @param normalizedSql 正規化した形式の追加先。不要な場合は {@code null}
+     */
+    private void scan(CharSequence sql, StringBuilder normalizedSql) {
+
+        final DmlLexer lexer = DmlLexer.of(sql);
+        long hash = FNV_OFFSET_BASIS;
+        boolean pendingSpace = false;
+        boolean started = false;
+        int depth = 0;
+        int maxDepth = 0;
+
+        while (lexer.next()) {
+
+            final int start = lexer.getStart();
+            final int end = lexer.getEnd();
+
+            if (end - start == 1 && Character.isWhitespace(sql.charAt(start))) {
+                pendingSpace = started;
+                continue;
+            }
+
+            if (pendingSpace) {
+                hash = (hash ^ ' ') * FNV_PRIME;
+                append(normalizedSql, ' ');
+                pendingSpace = false;
+            }
+
+            started = true;
+
+            if (DmlShape.isStringLiteral(sql, start, end)) {
+                hash = (hash ^ LITERAL_PLACEHOLDER) * FNV_PRIME;
+                append(normalizedSql, LITERAL_PLACEHOLDER);
+                continue;
+            }
+
+            final int literalEnd = DmlShape.numberLiteralEnd(sql, start, end, sql.length());
+
+            if (literalEnd >= 0) {
+                lexer.skipTo(literalEnd);
+                hash = (hash ^ LITERAL_PLACEHOLDER) * FNV_PRIME;
+                append(normalizedSql, LITERAL_PLACEHOLDER);
+                continue;
+            }
+
+            if (end - start == 1) {
+                final char character = sql.charAt(start);
+
+                if (character == '(') {
+                    maxDepth = Math.max(maxDepth, ++depth);
+                } else if (character == ')' && depth > 0) {
+                    depth--;
+                }
+            }
+
+            if (!lexer.isQuoted() && KeywordTable.lookup(sql, start, end) != KeywordTable.NONE) {
+                for (int i = start; i < end; i++) {
+                    final char character = Character.toLowerCase(sql.charAt(i));
+                    hash = (hash ^ character) * FNV_PRIME;
+                    append(normalizedSql, character);
+                }
+
+                continue;
+            }
+
+            for (int i = start; i < end; i++) {
+                hash = (hash ^ sql.charAt(i)) * FNV_PRIME;
+            }
+
+            if (normalizedSql != null) {
+                normalizedSql.append(sql, start, end);
+            }
+        }
+
+        this.hash = hash;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * 引数として渡された {@code normalizedSql} が {@code null} ではない場合に {@code character} を追加します。
+     *
+     * @param normalizedSql 正規化した形式の追加先
+     * @param character     追加する文字
+     */
+    private static void append(StringBuilder normalizedSql, char character) {
+        if (normalizedSql != null) {
+            normalizedSql.append(character);
+        }
+    }
+}
\ No newline at end of file
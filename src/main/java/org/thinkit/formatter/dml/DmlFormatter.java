@@ -14,17 +14,15 @@
 
 package org.thinkit.formatter.dml;
 
-import org.thinkit.api.catalog.BiCatalog;
 import org.thinkit.common.catalog.Delimiter;
-import org.thinkit.common.catalog.Parenthesis;
 import org.thinkit.formatter.SqlFormatter;
+import org.thinkit.formatter.catalog.KeywordTable;
 import org.thinkit.formatter.catalog.dml.DmlStatement;
 import org.thinkit.formatter.catalog.dml.EndClause;
 import org.thinkit.formatter.catalog.dml.LogicalExpression;
-import org.thinkit.formatter.catalog.dml.Quantifier;
 import org.thinkit.formatter.catalog.dml.StartClause;
 import org.thinkit.formatter.common.Formatter;
-import org.thinkit.formatter.common.Tokenizable;
+import org.thinkit.formatter.common.exception.FormattingException;
 
 import lombok.EqualsAndHashCode;
 import lombok.NonNull;
@@ -32,6 +30,10 @@ import lombok.ToString;
 
 /**
  * SQLにおけるDMLクエリを整形する処理を定義したフォーマッタクラスです。
+ * <p>
+ * 整形に使用するトークナイザ、アペンダー及び各種フィクサーはスレッド毎の {@link DmlSession} から取得して再利用されます。
+ * <p>
+ * トークン毎の処理はトークンの種別と最後に取得した空白以外のトークンの種別を基に {@link DmlDispatchTable} から決定されます。
  *
  * @author Kato Shinya
  * @since 1.0
@@ -41,11 +43,6 @@ import lombok.ToString;
 @EqualsAndHashCode
 public final class DmlFormatter implements Formatter {
 
-    /**
-     * 空白
-     */
-    private static final String WHITESPACES = " \n\r\f\t";
-
     /**
      * インデント数
      */
@@ -91,50 +88,73 @@ public final class DmlFormatter implements Formatter {
     @Override
     public String format(@NonNull final String sql) {
 
-        final FunctionFixer function = FunctionFixer.of();
-        final FieldFixer field = FieldFixer.of();
-        final ParenthesisFixer startParenthesis = ParenthesisFixer.of();
+        final DmlSession session = DmlSession.acquire(sql, this.indent);
+
+        try {
+            return this.format(session);
+        } finally {
+            session.release();
+        }
+    }
+
+    /**
+     * 引数として渡された {@code session} に保持されたSQLを整形し、整形後のクエリを返却します。
+     *
+     * @param session 初期化されたセッション
+     * @return 整形後のクエリ
+     */
+    private String format(@NonNull DmlSession session) {
+
+        final FunctionFixer function = session.getFunction();
+        final FieldFixer field = session.getField();
+        final ParenthesisFixer startParenthesis = session.getStartParenthesis();
 
         boolean inClauses = false;
 
-        final Tokenizable tokenizer = DmlTokenizer.of(sql);
-        final DmlAppender appender = DmlAppender.builder().register(tokenizer).withIndent(this.indent).build();
+        final DmlTokenizer tokenizer = session.getTokenizer();
+        final DmlAppender appender = session.getAppender();
 
         while (tokenizer.next()) {
-            String token = tokenizer.getToken();
-            String lowercaseToken = tokenizer.getLowercaseToken();
-            String lastToken = tokenizer.getLastToken();
-
-            if (BiCatalog.contains(DmlStatement.class, lowercaseToken)) {
-                this.dmlStatement(appender, tokenizer, startParenthesis, field);
-            } else if (BiCatalog.contains(StartClause.class, lowercaseToken)) {
-                this.startClause(appender, tokenizer, field, inClauses);
-                inClauses = true;
-            } else if (EndClause.ON.getTag().equals(lastToken) && Delimiter.comma().equals(token)) {
-                this.afterOnStatement(appender, field);
-            } else if (EndClause.ON.getTag().equals(lowercaseToken)) {
-                this.onStatement(appender, field);
-            } else if (BiCatalog.contains(EndClause.class, lowercaseToken)) {
-                this.endClause(appender, tokenizer, field, inClauses);
-                inClauses = false;
-            } else if (field.isNewline() && Delimiter.comma().equals(token)) {
-                this.fieldItem(appender, field);
-            } else if (Parenthesis.start().equals(token)) {
-                this.startParenthesis(appender, tokenizer, function, field, startParenthesis);
-            } else if (Parenthesis.end().equals(token)) {
-                this.endParenthesis(appender, function, field, startParenthesis);
-            } else if (EndClause.VALUES.getTag().equals(lowercaseToken)) {
-                this.valuesClause(appender, field);
-            } else if (BiCatalog.contains(LogicalExpression.class, lowercaseToken)
-                    && !LogicalExpression.CASE.getTag().equals(lowercaseToken)) {
-                this.logicalExceptCase(appender, tokenizer, field);
-            } else if (Quantifier.BETWEEN.getTag().equals(lastToken)
-                    && LogicalExpression.AND.getTag().equals(lowercaseToken)) {
-                this.logicalAfterBetween(appender, field);
-            } else if (this.isWhitespace(token)) {
-                this.whitespace(appender, field);
-            } else {
-                this.otherStatements(appender, tokenizer, field);
+            switch (DmlDispatchTable.actionOf(tokenizer.getKind(), tokenizer.getLastKind())) {
+                case DmlDispatchTable.ACTION_DML_STATEMENT:
+                    this.dmlStatement(appender, tokenizer, startParenthesis, field);
+                    break;
+                case DmlDispatchTable.ACTION_START_CLAUSE:
+                    this.startClause(appender, tokenizer, field, inClauses);
+                    inClauses = true;
+                    break;
+                case DmlDispatchTable.ACTION_AFTER_ON_STATEMENT:
+                    this.afterOnStatement(appender, field);
+                    break;
+                case DmlDispatchTable.ACTION_ON_STATEMENT:
+                    this.onStatement(appender, field);
+                    break;
+                case DmlDispatchTable.ACTION_END_CLAUSE:
+                    this.endClause(appender, tokenizer, field, inClauses);
+                    inClauses = false;
+                    break;
+                case DmlDispatchTable.ACTION_FIELD_ITEM:
+                    if (field.isNewline()) {
+                        this.fieldItem(appender, field);
+                    } else {
+                        this.otherStatements(appender, tokenizer, field);
+                    }
+                    break;
+                case DmlDispatchTable.ACTION_START_PARENTHESIS:
+                    this.startParenthesis(appender, tokenizer, function, field, startParenthesis);
+                    break;
+                case DmlDispatchTable.ACTION_END_PARENTHESIS:
+                    this.endParenthesis(appender, function, field, startParenthesis);
+                    break;
+                case DmlDispatchTable.ACTION_LOGICAL_EXCEPT_CASE:
+                    this.logicalExceptCase(appender, tokenizer, field);
+                    break;
+                case DmlDispatchTable.ACTION_WHITESPACE:
+                    this.whitespace(appender, field);
+                    break;
+                default:
+                    this.otherStatements(appender, tokenizer, field);
+                    break;
             }
         }
 
@@ -151,12 +171,12 @@ public final class DmlFormatter implements Formatter {
      *
      * @exception NullPointerException 引数として {@code null} が渡された場合
      */
-    private void dmlStatement(@NonNull DmlAppender appender, @NonNull Tokenizable tokenizer,
+    private void dmlStatement(@NonNull DmlAppender appender, @NonNull DmlTokenizer tokenizer,
             @NonNull ParenthesisFixer startParenthesis, @NonNull FieldFixer field) {
 
         appender.appendToken();
 
-        if (DmlStatement.SELECT.getTag().equals(tokenizer.getLowercaseToken())) {
+        if (tokenizer.matches(DmlStatement.SELECT.getTag())) {
             appender.incrementIndent().appendNewLine();
             startParenthesis.push();
             field.push().toNewline().toStartLine();
@@ -164,7 +184,7 @@ public final class DmlFormatter implements Formatter {
 
             field.toNotStartLine();
 
-            if (DmlStatement.UPDATE.getTag().equals(tokenizer.getLowercaseToken())) {
+            if (tokenizer.matches(DmlStatement.UPDATE.getTag())) {
                 appender.appendNewLine();
                 field.toStartLine();
             }
@@ -185,11 +205,11 @@ public final class DmlFormatter implements Formatter {
      *
      * @exception NullPointerException 引数として {@code null} が渡された場合
      */
-    private void startClause(@NonNull DmlAppender appender, @NonNull Tokenizable tokenizer, @NonNull FieldFixer field,
+    private void startClause(@NonNull DmlAppender appender, @NonNull DmlTokenizer tokenizer, @NonNull FieldFixer field,
             boolean inClauses) {
 
         if (!inClauses) {
-            if (EndClause.ON.getTag().equals(tokenizer.getLastToken())) {
+            if (tokenizer.matchesLastToken(EndClause.ON.getTag())) {
                 appender.decrementIndent();
             }
 
@@ -212,28 +232,26 @@ public final class DmlFormatter implements Formatter {
      *
      * @exception NullPointerException 引数として {@code null} が渡された場合
      */
-    private void endClause(@NonNull DmlAppender appender, @NonNull Tokenizable tokenizer, @NonNull FieldFixer field,
+    private void endClause(@NonNull DmlAppender appender, @NonNull DmlTokenizer tokenizer, @NonNull FieldFixer field,
             boolean inClauses) {
 
         if (!inClauses) {
-            if (EndClause.ON.getTag().equals(tokenizer.getLastToken())) {
+            if (tokenizer.matchesLastToken(EndClause.ON.getTag())) {
                 appender.decrementIndent();
             }
 
             appender.decrementIndent().appendNewLine();
         }
 
-        final String lowercaseToken = tokenizer.getLowercaseToken();
-
-        if (!EndClause.UNION.getTag().equals(lowercaseToken)) {
+        if (!tokenizer.matches(EndClause.UNION.getTag())) {
             appender.incrementIndent();
         }
 
         appender.appendToken().appendNewLine();
         field.toStartLine();
 
-        if (EndClause.BY.getTag().equals(lowercaseToken) || EndClause.SET.getTag().equals(lowercaseToken)
-                || EndClause.FROM.getTag().equals(lowercaseToken)) {
+        if (tokenizer.matches(EndClause.BY.getTag()) || tokenizer.matches(EndClause.SET.getTag())
+                || tokenizer.matches(EndClause.FROM.getTag())) {
             field.toNewline();
         } else {
             field.toNotNewline();
@@ -277,12 +295,12 @@ public final class DmlFormatter implements Formatter {
      *
      * @exception NullPointerException 引数として {@code null} が渡された場合
      */
-    private void startParenthesis(@NonNull DmlAppender appender, @NonNull Tokenizable tokenizer,
+    private void startParenthesis(@NonNull DmlAppender appender, @NonNull DmlTokenizer tokenizer,
             @NonNull FunctionFixer function, @NonNull FieldFixer field, @NonNull ParenthesisFixer startParenthesis) {
 
         startParenthesis.increment();
 
-        if (this.isFunction(tokenizer.getLastToken()) || function.isInFunction()) {
+        if (this.isFunction(tokenizer) || function.isInFunction()) {
             function.increment();
         }
 
@@ -308,13 +326,14 @@ public final class DmlFormatter implements Formatter {
      * @param startParenthesis 括弧の調整オブジェクト
      *
      * @exception NullPointerException 引数として {@code null} が渡された場合
+     * @throws FormattingException 対応する開始括弧が存在しない場合
      */
     private void endParenthesis(@NonNull DmlAppender appender, @NonNull FunctionFixer function,
             @NonNull FieldFixer field, @NonNull ParenthesisFixer startParenthesis) {
 
         startParenthesis.decrement();
 
-        if (startParenthesis.hasParenthesis()) {
+        if (startParenthesis.hasParenthesis() && startParenthesis.isPushed()) {
             appender.decrementIndent();
             startParenthesis.pop();
             field.pop();
@@ -333,21 +352,6 @@ public final class DmlFormatter implements Formatter {
         field.toNotStartLine();
     }
 
-    /**
-     * トークンが {@code "values"} 句の場合の処理を定義したメソッドです。
-     *
-     * @param appender DMLアペンダー
-     * @param field    フィールドの調整オブジェクト
-     *
-     * @exception NullPointerException 引数として {@code null} が渡された場合
-     */
-    private void valuesClause(@NonNull DmlAppender appender, @NonNull FieldFixer field) {
-        appender.decrementIndent().appendNewLine();
-        appender.appendToken();
-        appender.incrementIndent().appendNewLine();
-        field.toStartLine();
-    }
-
     /**
      * トークンが {@code "case"} 以外の論理式である場合の処理を定義したメソッドです。
      *
@@ -357,10 +361,10 @@ public final class DmlFormatter implements Formatter {
      *
      * @exception NullPointerException 引数として {@code null} が渡された場合
      */
-    private void logicalExceptCase(@NonNull DmlAppender appender, @NonNull Tokenizable tokenizer,
+    private void logicalExceptCase(@NonNull DmlAppender appender, @NonNull DmlTokenizer tokenizer,
             @NonNull FieldFixer field) {
 
-        if (LogicalExpression.END.getTag().equals(tokenizer.getLowercaseToken())) {
+        if (tokenizer.matches(LogicalExpression.END.getTag())) {
             appender.decrementIndent();
         }
 
@@ -368,19 +372,6 @@ public final class DmlFormatter implements Formatter {
         field.toNotStartLine();
     }
 
-    /**
-     * トークンの登場位置が {@code "between"} 句よりも後である場合の処理を定義したメソッドです。
-     *
-     * @param appender DMLのアペンダー
-     * @param field    フィールドの調整オブジェクト
-     *
-     * @exception NullPointerException 引数として {@code null} が渡された場合
-     */
-    private void logicalAfterBetween(@NonNull DmlAppender appender, @NonNull FieldFixer field) {
-        appender.appendToken();
-        field.toNotStartLine();
-    }
-
     /**
      * トークンが空白である場合の処理を定義したメソッドです。
      *
@@ -403,22 +394,22 @@ public final class DmlFormatter implements Formatter {
      *
      * @exception NullPointerException 引数として {@code null} が渡された場合
      */
-    private void otherStatements(@NonNull DmlAppender appender, @NonNull Tokenizable tokenizer,
+    private void otherStatements(@NonNull DmlAppender appender, @NonNull DmlTokenizer tokenizer,
             @NonNull FieldFixer field) {
 
-        if (Delimiter.semicolon().equals(tokenizer.getToken())) {
+        if (tokenizer.matches(Delimiter.semicolon())) {
             appender.resetIndent().appendNewLine();
         }
 
         appender.appendToken();
 
-        if (DmlStatement.INSERT.getTag().equals(tokenizer.getLastToken())) {
+        if (tokenizer.matchesLastToken(DmlStatement.INSERT.getTag())) {
             appender.appendNewLine();
             field.toStartLine();
         } else {
             field.toNotStartLine();
 
-            if (LogicalExpression.CASE.getTag().equals(tokenizer.getLowercaseToken())) {
+            if (tokenizer.matches(LogicalExpression.CASE.getTag())) {
                 appender.incrementIndent();
             }
         }
@@ -438,32 +429,21 @@ public final class DmlFormatter implements Formatter {
     }
 
     /**
-     * 引数として渡された {@code token} の文字列が空白であるか判定します。
-     *
-     * @param token 判定対象のトークン
-     * @return {@code token} の文字列が空白である場合は {@code true} 、それ以外は {@code false}
-     *
-     * @exception NullPointerException 引数として {@code null} が渡された場合
-     */
-    private boolean isWhitespace(@NonNull String token) {
-        return WHITESPACES.contains(token);
-    }
-
-    /**
-     * 引数として渡された {@code token} の文字列が関数名であるか判定します。
+     * 引数として渡された {@code tokenizer} で最後に取得した空白以外のトークンが関数名であるか判定します。
      *
-     * @param token 判定対象のトークン
-     * @return {@code token} の文字列が関数名である場合は {@code true} 、それ以外は {@code false}
+     * @param tokenizer DMLのトークナイザー
+     * @return 最後に取得した空白以外のトークンが関数名である場合は {@code true} 、それ以外は {@code false}
      *
      * @exception NullPointerException 引数として {@code null} が渡された場合
      */
-    private boolean isFunction(@NonNull String token) {
+    private boolean isFunction(@NonNull DmlTokenizer tokenizer) {
 
-        final char start = token.charAt(0);
+        final char start = tokenizer.getLastTokenHead();
         final boolean isIdentifier = Character.isJavaIdentifierStart(start) || '"' == start;
 
-        return isIdentifier && !BiCatalog.contains(LogicalExpression.class, token)
-                && !BiCatalog.contains(EndClause.class, token) && !BiCatalog.contains(Quantifier.class, token)
-                && !BiCatalog.contains(DmlStatement.class, token);
+        final int category = tokenizer.getLastCategory();
+
+        return isIdentifier && !KeywordTable.contains(category, KeywordTable.DML_LOGICAL_EXPRESSION
+                | KeywordTable.DML_END_CLAUSE | KeywordTable.DML_QUANTIFIER | KeywordTable.DML_STATEMENT);
     }
 }
\ No newline at end of file
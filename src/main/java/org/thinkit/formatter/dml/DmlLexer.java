@@ -0,0 +1,305 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.dml;
+
+import java.util.stream.Collectors;
+
+import org.thinkit.api.catalog.BiCatalog;
+import org.thinkit.formatter.common.catalog.Whitespace;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * SQLにおけるDMLクエリを先頭から1文字ずつ走査し、トークンの境界を検出する字句解析クラスです。
+ * <p>
+ * {@link java.util.StringTokenizer} とは異なり、トークン毎に文字列を分割することはありません。
+ * 走査対象の文字列に対する現在位置のトークンの開始位置と終了位置のみを管理します。
+ * <p>
+ * 引用符 {@code '} 、 {@code "} 及び開始角括弧 {@code [} から始まるトークンは、対応する終了記号までを1つのトークンとして扱います。
+ * 終了記号は {@link String#indexOf(int, int)} で一括して検索されるため、長いリテラルでも内部の文字を1文字ずつ判定することはありません。
+ * SQL標準に従い、 {@code ''} のように2つ連続した終了記号はリテラル内の1文字として扱われます。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+@EqualsAndHashCode
+final class DmlLexer {
+
+    /**
+     * 区切り文字
+     */
+    private static final String TOKEN_DELIMITER = ";()+*/-=<>'`\"[]," + getWhitespaces();
+
+    /**
+     * ASCII文字に対する区切り文字の判定表
+     */
+    private static final boolean[] DELIMITERS = createDelimiters();
+
+    /**
+     * 走査対象の文字列
+     */
+    @Getter
+    private CharSequence source;
+
+    /**
+     * 走査対象の終了位置
+     */
+    private int limit;
+
+    /**
+     * 次に走査する位置
+     */
+    private int position;
+
+    /**
+     * 現在位置のトークンの開始位置
+     */
+    @Getter
+    private int start;
+
+    /**
+     * 現在位置のトークンの終了位置
+     */
+    @Getter
+    private int end;
+
+    /**
+     * 現在位置のトークンが終了しているかの可否
+     */
+    @Getter
+    private boolean terminated;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private DmlLexer() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param source 走査対象の文字列
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private DmlLexer(@NonNull CharSequence source) {
+        this.reset(source, 0, source.length());
+    }
+
+    /**
+     * 引数として渡された {@code source} を走査する {@link DmlLexer} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param source 走査対象の文字列
+     * @return {@link DmlLexer} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static DmlLexer of(@NonNull CharSequence source) {
+        return new DmlLexer(source);
+    }
+
+    /**
+     * 走査対象を引数として渡された {@code source} の {@code from} から {@code to} の直前までの範囲へ置き換え、走査位置を範囲の先頭へ戻します。
+     *
+     * @param source 走査対象の文字列
+     * @param from   走査対象の開始位置
+     * @param to     走査対象の終了位置
+     * @return 自分自身のインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public DmlLexer reset(@NonNull CharSequence source, int from, int to) {
+        this.source = source;
+        this.limit = to;
+        this.position = from;
+        this.start = from;
+        this.end = from;
+        this.terminated = true;
+        return this;
+    }
+
+    /**
+     * 空白の文字列集合を生成し返却します。
+     *
+     * @return 空白の文字列集合
+     */
+    private static String getWhitespaces() {
+        return BiCatalog.stream(Whitespace.class).map(e -> e.getTag()).collect(Collectors.toList()).toString();
+    }
+
+    /**
+     * ASCII文字に対する区切り文字の判定表を生成し返却します。
+     *
+     * @return 区切り文字の判定表
+     */
+    private static boolean[] createDelimiters() {
+
+        final boolean[] delimiters = new boolean[128];
+
+        for (int i = 0, size = TOKEN_DELIMITER.length(); i < size; i++) {
+            final char delimiter = TOKEN_DELIMITER.charAt(i);
+
+            if (delimiter < delimiters.length) {
+                delimiters[delimiter] = true;
+            }
+        }
+
+        return delimiters;
+    }
+
+    /**
+     * 現在位置から次のトークンの境界を検出し、走査位置を次のトークンの先頭へ進めます。
+     * <p>
+     * 区切り文字はそれ自体が1文字のトークンとなり、区切り文字以外の連続した文字列は1つのトークンとなります。
+     * 引用符から始まるトークンは対応する終了記号まで、終了記号が存在しない場合は文字列の末尾までを1つのトークンとします。
+     * 終了記号が存在しない場合は {@link #isTerminated()} メソッドが {@code false} を返却します。
+     *
+     * @return 次のトークンが存在する場合は {@code true} 、それ以外は {@code false}
+     */
+    public boolean next() {
+
+        if (this.position >= this.limit) {
+            return false;
+        }
+
+        this.start = this.position;
+        this.terminated = true;
+
+        final char character = this.source.charAt(this.position++);
+
+        if (isDelimiter(character)) {
+            final char closeSymbol = getCloseSymbol(character);
+
+            if (closeSymbol != 0) {
+                this.skipQuoted(closeSymbol);
+            }
+        } else {
+            while (this.position < this.limit && !isDelimiter(this.source.charAt(this.position))) {
+                this.position++;
+            }
+        }
+
+        this.end = this.position;
+
+        return true;
+    }
+
+    /**
+     * 現在位置のトークンの終了位置と次に走査する位置を、引数として渡された {@code position} まで進めます。
+     * <p>
+     * 符号付きの指数を持つ数値リテラルのように、区切り文字を含めて複数のトークンを1つとして扱う場合に使用します。
+     *
+     * @param position 現在位置のトークンの新しい終了位置
+     */
+    public void skipTo(int position) {
+        this.position = position;
+        this.end = position;
+    }
+
+    /**
+     * 引数として渡された {@code closeSymbol} で終了する引用符の内部を読み飛ばし、走査位置を終了記号の直後へ進めます。
+     * <p>
+     * 2つ連続した終了記号はリテラル内の文字として読み飛ばされます。終了記号が存在しない場合は走査位置を走査対象の末尾へ進めます。
+     *
+     * @param closeSymbol 終了記号
+     */
+    private void skipQuoted(char closeSymbol) {
+
+        while (true) {
+
+            final int close = this.indexOf(closeSymbol, this.position);
+
+            if (close < 0) {
+                this.position = this.limit;
+                this.terminated = false;
+                return;
+            }
+
+            this.position = close + 1;
+
+            if (this.position >= this.limit || this.source.charAt(this.position) != closeSymbol) {
+                return;
+            }
+
+            this.position++;
+        }
+    }
+
+    /**
+     * 走査対象の {@code from} の位置から走査対象の終了位置までの範囲で、引数として渡された {@code character} が最初に現れる位置を返却します。
+     *
+     * @param character 検索対象の文字
+     * @param from      検索の開始位置
+     * @return {@code character} が最初に現れる位置。範囲内に存在しない場合は {@code -1}
+     */
+    private int indexOf(char character, int from) {
+
+        if (this.source instanceof String) {
+            final int index = ((String) this.source).indexOf(character, from);
+            return index < this.limit ? index : -1;
+        }
+
+        for (int i = from; i < this.limit; i++) {
+            if (this.source.charAt(i) == character) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * 現在位置のトークンが引用符から始まるトークンであるか判定します。
+     *
+     * @return 現在位置のトークンが引用符から始まるトークンである場合は {@code true} 、それ以外は {@code false}
+     */
+    public boolean isQuoted() {
+        return getCloseSymbol(this.source.charAt(this.start)) != 0;
+    }
+
+    /**
+     * 引数として渡された {@code character} が区切り文字であるか判定します。
+     *
+     * @param character 判定対象の文字
+     * @return {@code character} が区切り文字である場合は {@code true} 、それ以外は {@code false}
+     */
+    static boolean isDelimiter(char character) {
+        return character < DELIMITERS.length ? DELIMITERS[character] : TOKEN_DELIMITER.indexOf(character) >= 0;
+    }
+
+    /**
+     * 引数として渡された {@code character} から始まる引用符の終了記号を返却します。
+     *
+     * @param character 開始記号
+     * @return {@code character} に対応する終了記号。 {@code character} が引用符の開始記号ではない場合は {@code 0}
+     */
+    private static char getCloseSymbol(char character) {
+        switch (character) {
+            case '\'':
+                return '\'';
+            case '"':
+                return '"';
+            case '[':
+                return ']';
+            default:
+                return 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.dml;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * DMLクエリの整形に使用するトークナイザ、アペンダー及び各種フィクサーをまとめて保持し、整形毎に初期化して再利用するセッションクラスです。
+ * <p>
+ * セッションはスレッド毎に1つずつ保持され、 {@link #acquire(String, int)} メソッドで取得したセッションは
+ * {@link #release()} メソッドで返却する必要があります。返却されたセッションは同じスレッドの次の整形で再利用されるため、
+ * 整形処理が定常状態に達した後は整形結果の文字列以外のオブジェクトを生成しません。
+ * <p>
+ * 同じスレッドで整形処理が入れ子に呼び出された場合は、使用中のセッションを上書きしないよう新しいセッションを生成して返却します。
+ *
+ * <pre>
+ * final DmlSession session = DmlSession.acquire(sql, indent);
+ *
+ * try {
+ *     // do something
+ * } finally {
+ *     session.release();
+ * }
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+final class DmlSession {
+
+    /**
+     * 再利用する文字列バッファの最大容量
+     */
+    private static final int MAXIMUM_RETAINED_CAPACITY = 1 << 16;
+
+    /**
+     * スレッド毎のセッション
+     */
+    private static final ThreadLocal<DmlSession> SESSIONS = ThreadLocal.withInitial(DmlSession::new);
+
+    /**
+     * DMLトークナイザ
+     */
+    @Getter
+    private DmlTokenizer tokenizer;
+
+    /**
+     * DMLアペンダー
+     */
+    @Getter
+    @ToString.Exclude
+    private DmlAppender appender;
+
+    /**
+     * 関数フィクサー
+     */
+    @Getter
+    private FunctionFixer function;
+
+    /**
+     * フィールドフィクサー
+     */
+    @Getter
+    private FieldFixer field;
+
+    /**
+     * 開始括弧フィクサー
+     */
+    @Getter
+    private ParenthesisFixer startParenthesis;
+
+    /**
+     * 使用中であるかの可否
+     */
+    private boolean inUse;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private DmlSession() {
+        this.tokenizer = DmlTokenizer.of("");
+        this.appender = DmlAppender.builder().register(this.tokenizer).build();
+        this.function = FunctionFixer.of();
+        this.field = FieldFixer.of();
+        this.startParenthesis = ParenthesisFixer.of();
+    }
+
+    /**
+     * 現在のスレッドに保持されたセッションを引数として渡された {@code sql} と {@code indent} で初期化し返却します。
+     * <p>
+     * 現在のスレッドのセッションが使用中の場合は新しいセッションを生成して初期化し返却します。
+     *
+     * @param sql    整形対象のSQL
+     * @param indent インデント数
+     * @return 初期化されたセッション
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static DmlSession acquire(@NonNull String sql, int indent) {
+
+        DmlSession session = SESSIONS.get();
+
+        if (session.inUse) {
+            session = new DmlSession();
+        }
+
+        session.inUse = true;
+        session.tokenizer.reset(sql);
+        session.appender.reset(indent);
+        session.function.reset();
+        session.field.reset();
+        session.startParenthesis.reset();
+
+        return session;
+    }
+
+    /**
+     * セッションを返却し、次の整形で再利用できる状態にします。
+     * <p>
+     * 整形対象のSQLへの参照は破棄され、大きなクエリの整形で拡張された文字列バッファは保持されません。
+     */
+    public void release() {
+        this.tokenizer.reset("");
+        this.appender.release(MAXIMUM_RETAINED_CAPACITY);
+        this.inUse = false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.dml;
+
+import java.util.Arrays;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * SQLにおけるDMLクエリに含まれるリテラルをプレースホルダへ置き換えたクエリの形状を表現するクラスです。
+ * <p>
+ * 引用符 {@code '} で囲まれた文字列リテラルは {@code ''} へ、数値リテラルは {@code 0} へ置き換えられます。
+ * 数値リテラルには小数、 {@code .5} のように小数点から始まる小数、 {@code 1.5e-3} のような指数表記及び {@code 0x1F} のような16進数表記を含みます。
+ * 符号は演算子と区別できないためリテラルに含めず、 {@code -17} は {@code -0} となります。
+ * {@link DmlFormatter} はリテラルの内容を整形の判断に使用しないため、リテラルのみが異なるクエリは同じ形状となり、同じレイアウトで整形されます。
+ * <p>
+ * 形状を整形した結果は {@link DmlTemplate} クラスとして表現され、 {@link DmlTemplate#render(DmlShape)}
+ * メソッドで元のリテラルを埋め戻すことができます。
+ *
+ * <pre>
+ * final DmlShape shape = DmlShape.of(sql);
+ *
+ * if (shape.isTemplatable()) {
+ *     final DmlTemplate template = DmlTemplate.of(DmlFormatter.of().format(shape.getShape()));
+ *     final String formattedSql = template.render(shape);
+ * }
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+@EqualsAndHashCode
+public final class DmlShape {
+
+    /**
+     * 文字列リテラルのプレースホルダ
+     */
+    static final String STRING_PLACEHOLDER = "''";
+
+    /**
+     * 数値リテラルのプレースホルダ
+     */
+    static final String NUMBER_PLACEHOLDER = "0";
+
+    /**
+     * 元のクエリ
+     */
+    @Getter
+    private String sql;
+
+    /**
+     * リテラルをプレースホルダへ置き換えたクエリ
+     */
+    @Getter
+    private String shape;
+
+    /**
+     * 元のクエリにおけるリテラルの開始位置
+     */
+    @ToString.Exclude
+    private int[] starts;
+
+    /**
+     * 元のクエリにおけるリテラルの終了位置
+     */
+    @ToString.Exclude
+    private int[] ends;
+
+    /**
+     * リテラルの数
+     */
+    @Getter
+    private int literalCount;
+
+    /**
+     * 終了していない文字列リテラルの有無
+     */
+    private boolean unterminated;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private DmlShape() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param sql 元のクエリ
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private DmlShape(@NonNull String sql) {
+        this.sql = sql;
+        this.starts = new int[8];
+        this.ends = new int[8];
+        this.shape = this.normalize();
+    }
+
+    /**
+     * 引数として渡された {@code sql} の形状を表現する {@link DmlShape} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param sql 元のクエリ
+     * @return {@link DmlShape} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static DmlShape of(@NonNull String sql) {
+        return new DmlShape(sql);
+    }
+
+    /**
+     * 元のクエリを走査してリテラルの位置を記録し、リテラルをプレースホルダへ置き換えたクエリを返却します。
+     *
+     * @return リテラルをプレースホルダへ置き換えたクエリ
+     */
+    private String normalize() {
+
+        final DmlLexer lexer = DmlLexer.of(this.sql);
+        final StringBuilder shape = new StringBuilder(this.sql.length());
+
+        while (lexer.next()) {
+
+            final int start = lexer.getStart();
+            final int end = lexer.getEnd();
+
+            if (isStringLiteral(this.sql, start, end)) {
+                if (!lexer.isTerminated()) {
+                    this.unterminated = true;
+                }
+
+                this.addLiteral(start, end);
+                shape.append(STRING_PLACEHOLDER);
+            } else {
+                final int literalEnd = numberLiteralEnd(this.sql, start, end, this.sql.length());
+
+                if (literalEnd >= 0) {
+                    lexer.skipTo(literalEnd);
+                    this.addLiteral(start, literalEnd);
+                    shape.append(NUMBER_PLACEHOLDER);
+                } else {
+                    shape.append(this.sql, start, end);
+                }
+            }
+        }
+
+        return shape.toString();
+    }
+
+    /**
+     * 引数として渡された範囲のリテラルを記録します。
+     *
+     * @param start リテラルの開始位置
+     * @param end   リテラルの終了位置
+     */
+    private void addLiteral(int start, int end) {
+
+        if (this.literalCount == this.starts.length) {
+            this.starts = Arrays.copyOf(this.starts, this.literalCount * 2);
+            this.ends = Arrays.copyOf(this.ends, this.literalCount * 2);
+        }
+
+        this.starts[this.literalCount] = start;
+        this.ends[this.literalCount] = end;
+        this.literalCount++;
+    }
+
+    /**
+     * 形状を整形した結果へリテラルを埋め戻せるか判定します。
+     * <p>
+     * リテラルを含まない場合、または終了していない文字列リテラルを含む場合は埋め戻すことはできません。
+     *
+     * @return リテラルを埋め戻せる場合は {@code true} 、それ以外は {@code false}
+     */
+    public boolean isTemplatable() {
+        return this.literalCount > 0 && !this.unterminated;
+    }
+
+    /**
+     * 引数として渡された位置のリテラルの開始位置を返却します。
+     *
+     * @param index リテラルの位置
+     * @return 元のクエリにおけるリテラルの開始位置
+     */
+    int getLiteralStart(int index) {
+        return this.starts[index];
+    }
+
+    /**
+     * 引数として渡された位置のリテラルの終了位置を返却します。
+     *
+     * @param index リテラルの位置
+     * @return 元のクエリにおけるリテラルの終了位置
+     */
+    int getLiteralEnd(int index) {
+        return this.ends[index];
+    }
+
+    /**
+     * 引数として渡された範囲のトークンが文字列リテラルであるか判定します。
+     *
+     * @param source トークンを含む文字列
+     * @param start  トークンの開始位置
+     * @param end    トークンの終了位置
+     * @return 文字列リテラルである場合は {@code true} 、それ以外は {@code false}
+     */
+    static boolean isStringLiteral(CharSequence source, int start, int end) {
+        return source.charAt(start) == '\'';
+    }
+
+    /**
+     * 引数として渡された範囲のトークンが数値リテラルから始まるか判定します。
+     * <p>
+     * 数字から始まり数字と {@code .} のみで構成されるトークン、小数点と数字から始まる小数、 {@code e} または {@code E}
+     * に続く指数を持つトークン及び {@code 0x} に続く16進数のトークンを数値リテラルとして扱います。 {@code 1e} のように指数の数字を持たないトークンは、
+     * 直後に符号と数字が続く場合のみ数値リテラルとして扱われ、その終了位置は {@link #numberLiteralEnd(CharSequence, int, int, int)}
+     * メソッドで求められます。
+     *
+     * @param source トークンを含む文字列
+     * @param start  トークンの開始位置
+     * @param end    トークンの終了位置
+     * @return 数値リテラルである場合は {@code true} 、それ以外は {@code false}
+     */
+    static boolean isNumberLiteral(CharSequence source, int start, int end) {
+        return numberLiteralEnd(source, start, end, source.length()) >= 0;
+    }
+
+    /**
+     * 引数として渡された範囲のトークンから始まる数値リテラルの終了位置を返却します。
+     * <p>
+     * {@link DmlLexer} は符号を区切り文字として扱うため、 {@code 1.5e-3} は {@code 1.5e} 、 {@code -} 及び {@code 3}
+     * の3つのトークンに分割されます。指数の数字を持たないトークンの直後に符号と数字のみで構成されるトークンが続く場合は、それらを含めた終了位置を返却します。
+     *
+     * @param source トークンを含む文字列
+     * @param start  トークンの開始位置
+     * @param end    トークンの終了位置
+     * @param limit  走査対象の終了位置
+     * @return 数値リテラルの終了位置。数値リテラルではない場合は {@code -1}
+     */
+    static int numberLiteralEnd(CharSequence source, int start, int end, int limit) {
+
+        int position = start;
+
+        if (end - start > 2 && source.charAt(start) == '0'
+                && (source.charAt(start + 1) == 'x' || source.charAt(start + 1) == 'X')) {
+            for (position = start + 2; position < end; position++) {
+                if (Character.digit(source.charAt(position), 16) < 0) {
+                    return -1;
+                }
+            }
+
+            return end;
+        }
+
+        final boolean leadingDot = source.charAt(start) == '.';
+
+        if (leadingDot) {
+            position++;
+        }
+
+        if (position >= end || !isDigit(source.charAt(position))) {
+            return -1;
+        }
+
+        while (position < end && (isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            position++;
+        }
+
+        if (position == end) {
+            return end;
+        }
+
+        if (source.charAt(position) != 'e' && source.charAt(position) != 'E') {
+            return -1;
+        }
+
+        position++;
+
+        if (position < end) {
+            return skipDigits(source, position, end) == end ? end : -1;
+        }
+
+        if (end + 1 < limit && (source.charAt(end) == '+' || source.charAt(end) == '-')) {
+            final int exponentEnd = skipDigits(source, end + 1, limit);
+
+            if (exponentEnd > end + 1 && (exponentEnd == limit || DmlLexer.isDelimiter(source.charAt(exponentEnd)))) {
+                return exponentEnd;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * 引数として渡された {@code from} の位置から連続する数字を読み飛ばし、数字ではない最初の位置を返却します。
+     *
+     * @param source 走査対象の文字列
+     * @param from   走査の開始位置
+     * @param to     走査の終了位置
+     * @return 数字ではない最初の位置。全て数字の場合は {@code to}
+     */
+    private static int skipDigits(CharSequence source, int from, int to) {
+
+        int position = from;
+
+        while (position < to && isDigit(source.charAt(position))) {
+            position++;
+        }
+
+        return position;
+    }
+
+    /**
+     * 引数として渡された {@code character} が数字であるか判定します。
+     *
+     * @param character 判定対象の文字
+     * @return 数字である場合は {@code true} 、それ以外は {@code false}
+     */
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.dml;
+
+import java.util.Arrays;
+
+import org.thinkit.formatter.common.exception.FormattingException;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * {@link DmlShape} クラスで表現されたクエリの形状を整形した結果と、その中に含まれるプレースホルダの位置を管理するクラスです。
+ * <p>
+ * プレースホルダの位置はインスタンスの生成時に一度だけ検出されるため、 {@link #render(DmlShape)}
+ * メソッドは整形結果とリテラルを先頭から順に1回複写するのみでクエリを再構築します。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+@EqualsAndHashCode
+public final class DmlTemplate {
+
+    /**
+     * 形状を整形した結果
+     */
+    @Getter
+    private String formattedShape;
+
+    /**
+     * プレースホルダの開始位置
+     */
+    @ToString.Exclude
+    private int[] starts;
+
+    /**
+     * プレースホルダの終了位置
+     */
+    @ToString.Exclude
+    private int[] ends;
+
+    /**
+     * プレースホルダの数
+     */
+    @Getter
+    private int placeholderCount;
+
+    /**
+     * プレースホルダを除いた文字数
+     */
+    private int fixedLength;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private DmlTemplate() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param formattedShape 形状を整形した結果
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private DmlTemplate(@NonNull String formattedShape) {
+        this.formattedShape = formattedShape;
+        this.starts = new int[8];
+        this.ends = new int[8];
+        this.scan();
+    }
+
+    /**
+     * 引数として渡された {@code formattedShape} から {@link DmlTemplate} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param formattedShape {@link DmlShape#getShape()} メソッドから返却された形状を整形した結果
+     * @return {@link DmlTemplate} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static DmlTemplate of(@NonNull String formattedShape) {
+        return new DmlTemplate(formattedShape);
+    }
+
+    /**
+     * 形状を整形した結果を走査し、プレースホルダの位置を記録します。
+     */
+    private void scan() {
+
+        final DmlLexer lexer = DmlLexer.of(this.formattedShape);
+        int placeholderLength = 0;
+
+        while (lexer.next()) {
+
+            final int start = lexer.getStart();
+            final int end = lexer.getEnd();
+
+            if (DmlShape.isStringLiteral(this.formattedShape, start, end)
+                    || DmlShape.isNumberLiteral(this.formattedShape, start, end)) {
+
+                if (this.placeholderCount == this.starts.length) {
+                    this.starts = Arrays.copyOf(this.starts, this.placeholderCount * 2);
+                    this.ends = Arrays.copyOf(this.ends, this.placeholderCount * 2);
+                }
+
+                this.starts[this.placeholderCount] = start;
+                this.ends[this.placeholderCount] = end;
+                this.placeholderCount++;
+                placeholderLength += end - start;
+            }
+        }
+
+        this.fixedLength = this.formattedShape.length() - placeholderLength;
+    }
+
+    /**
+     * 引数として渡された {@code shape} に対応するテンプレートであるか判定します。
+     *
+     * @param shape クエリの形状
+     * @return {@code shape} のリテラルを埋め戻せる場合は {@code true} 、それ以外は {@code false}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public boolean accepts(@NonNull DmlShape shape) {
+        return shape.isTemplatable() && shape.getLiteralCount() == this.placeholderCount;
+    }
+
+    /**
+     * 整形結果のプレースホルダへ引数として渡された {@code shape} の元のリテラルを埋め戻したクエリを返却します。
+     *
+     * @param shape クエリの形状
+     * @return リテラルを埋め戻した整形後のクエリ
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     * @throws FormattingException {@code shape} のリテラルの数とプレースホルダの数が一致しない場合
+     */
+    public String render(@NonNull DmlShape shape) {
+
+        if (!this.accepts(shape)) {
+            throw new FormattingException(String.format("The literals of %s do not fit the template with %d placeholders",
+                    shape.getShape(), this.placeholderCount));
+        }
+
+        final String sql = shape.getSql();
+        int capacity = this.fixedLength;
+
+        for (int i = 0; i < this.placeholderCount; i++) {
+            capacity += shape.getLiteralEnd(i) - shape.getLiteralStart(i);
+        }
+
+        final StringBuilder formattedSql = new StringBuilder(capacity);
+        int position = 0;
+
+        for (int i = 0; i < this.placeholderCount; i++) {
+            formattedSql.append(this.formattedShape, position, this.starts[i]);
+            formattedSql.append(sql, shape.getLiteralStart(i), shape.getLiteralEnd(i));
+            position = this.ends[i];
+        }
+
+        return formattedSql.append(this.formattedShape, position, this.formattedShape.length()).toString();
+    }
+
+    /**
+     * 整形結果の全てのプレースホルダを {@code ?} へ置き換えたクエリを返却します。
+     * <p>
+     * {@link #render(DmlShape)} メソッドと同じテンプレートから生成されるため、1回の整形で元のリテラルを埋め戻したクエリと、
+     * リテラルを含まない個人情報を出力しないログ向けのクエリを両方得ることができます。
+     *
+     * @return リテラルを {@code ?} へ置き換えた整形後のクエリ
+     */
+    public String redact() {
+
+        final StringBuilder redactedSql = new StringBuilder(this.fixedLength + this.placeholderCount);
+        int position = 0;
+
+        for (int i = 0; i < this.placeholderCount; i++) {
+            redactedSql.append(this.formattedShape, position, this.starts[i]).append(DmlFingerprint.LITERAL_PLACEHOLDER);
+            position = this.ends[i];
+        }
+
+        return redactedSql.append(this.formattedShape, position, this.formattedShape.length()).toString();
+    }
+}
\ No newline at end of file
@@ -15,12 +15,9 @@
 package org.thinkit.formatter.dml;
 
 import java.util.Locale;
-import java.util.StringTokenizer;
-import java.util.stream.Collectors;
 
-import org.thinkit.api.catalog.BiCatalog;
+import org.thinkit.formatter.catalog.KeywordTable;
 import org.thinkit.formatter.common.Tokenizable;
-import org.thinkit.formatter.common.catalog.Whitespace;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -29,6 +26,10 @@ import lombok.ToString;
 
 /**
  * SQLにおけるDMLのクエリトークンを管理する処理と状態を定義したクラスです。
+ * <p>
+ * トークンは文字列として切り出されず、処理対象のSQLに対する開始位置と終了位置の範囲として管理されます。 キーワードとの比較は
+ * {@link #matches(String)} メソッドと {@link #matchesLastToken(String)} メソッドを使用して元のSQL上で行ってください。
+ * {@link Tokenizable} インターフェースで定義された文字列を返却するメソッドは、呼び出された時点で初めて文字列を生成します。
  *
  * @author Kato Shinya
  * @since 1.0
@@ -39,46 +40,76 @@ import lombok.ToString;
 final class DmlTokenizer implements Tokenizable {
 
     /**
-     * 区切り文字
+     * 字句解析器
      */
-    private static final String TOKEN_DELIMITER = ";()+*/-=<>'`\"[]," + getWhitespaces();
+    private DmlLexer lexer;
 
     /**
-     * トークナイザー
+     * 処理対象のSQL
      */
-    private StringTokenizer tokenizer;
+    @Getter
+    private CharSequence source;
 
     /**
-     * トークン
+     * トークンの開始位置
      */
     @Getter
-    private String token;
+    private int start;
 
     /**
-     * 小文字のトークン
+     * トークンの終了位置
      */
     @Getter
-    private String lowercaseToken;
+    private int end;
 
     /**
-     * 最後に取得した空白以外のトークン
+     * トークンが属するキーワードの分類
      */
     @Getter
-    private String lastToken;
+    private int category;
 
     /**
-     * デフォルトコンストラクタ
+     * トークンの種別
      */
-    private DmlTokenizer() {
-    }
+    @Getter
+    private int kind;
 
     /**
-     * 空白の文字列集合を生成し返却します。
-     *
-     * @return 空白の文字列集合
+     * 引用符で囲まれたトークンの可否
      */
-    private static String getWhitespaces() {
-        return BiCatalog.stream(Whitespace.class).map(e -> e.getTag()).collect(Collectors.toList()).toString();
+    private boolean quoted;
+
+    /**
+     * 最後に取得した空白以外のトークンの開始位置
+     */
+    private int lastStart;
+
+    /**
+     * 最後に取得した空白以外のトークンの終了位置
+     */
+    private int lastEnd;
+
+    /**
+     * 最後に取得した空白以外のトークンが属するキーワードの分類
+     */
+    @Getter
+    private int lastCategory;
+
+    /**
+     * 最後に取得した空白以外のトークンの種別
+     */
+    @Getter
+    private int lastKind;
+
+    /**
+     * 最後に取得した空白以外のトークンが引用符で囲まれたトークンであるかの可否
+     */
+    private boolean lastQuoted;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private DmlTokenizer() {
     }
 
     /**
@@ -89,7 +120,8 @@ final class DmlTokenizer implements Tokenizable {
      * @exception NullPointerException 引数として {@code null} が渡された場合
      */
     private DmlTokenizer(@NonNull String sql) {
-        this.tokenizer = new StringTokenizer(sql.trim(), TOKEN_DELIMITER, true);
+        this.lexer = DmlLexer.of(sql);
+        this.reset(sql);
     }
 
     /**
@@ -101,41 +133,147 @@ final class DmlTokenizer implements Tokenizable {
      *
      * @exception NullPointerException 引数として {@code null} が渡された場合
      */
-    public static Tokenizable of(@NonNull String sql) {
+    public static DmlTokenizer of(@NonNull String sql) {
         return new DmlTokenizer(sql);
     }
 
+    /**
+     * 処理対象のSQLを引数として渡された {@code sql} へ置き換え、トークンの状態を初期化します。
+     * <p>
+     * {@code sql} の前後にある空白は {@link String#trim()} メソッドと同じ規則で処理対象の範囲から除外されます。
+     * 除外は範囲の調整のみで行われるため、新しい文字列は生成されません。
+     *
+     * @param sql 処理対象のSQL
+     * @return 自分自身のインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public DmlTokenizer reset(@NonNull String sql) {
+
+        int from = 0;
+        int to = sql.length();
+
+        while (from < to && sql.charAt(from) <= ' ') {
+            from++;
+        }
+
+        while (from < to && sql.charAt(to - 1) <= ' ') {
+            to--;
+        }
+
+        this.source = sql;
+        this.lexer.reset(sql, from, to);
+        this.start = from;
+        this.end = from;
+        this.category = KeywordTable.NONE;
+        this.kind = DmlDispatchTable.KIND_OTHER;
+        this.quoted = false;
+        this.lastStart = -1;
+        this.lastEnd = -1;
+        this.lastCategory = KeywordTable.NONE;
+        this.lastKind = DmlDispatchTable.KIND_OTHER;
+        this.lastQuoted = false;
+
+        return this;
+    }
+
     @Override
     public boolean next() {
 
-        if (!this.tokenizer.hasMoreTokens()) {
+        if (!this.lexer.next()) {
             return false;
         }
 
-        final String token = this.tokenizer.nextToken();
-        final StringBuilder sb = new StringBuilder(token);
+        this.start = this.lexer.getStart();
+        this.end = this.lexer.getEnd();
+        this.quoted = this.lexer.isQuoted();
+        this.category = this.quoted ? KeywordTable.NONE : KeywordTable.lookup(this.source, this.start, this.end);
+        this.kind = DmlDispatchTable.kindOf(this.source, this.start, this.end, this.category);
 
-        if ("'".equals(token) || "\"".equals(token) || "[".equals(token)) {
+        if (!this.isWhitespace()) {
+            this.lastStart = this.start;
+            this.lastEnd = this.end;
+            this.lastCategory = this.category;
+            this.lastKind = this.kind;
+            this.lastQuoted = this.quoted;
+        }
 
-            final String closeSymbol = "'".equals(token) || "\"".equals(token) ? token : "]";
+        return true;
+    }
 
-            while (this.tokenizer.hasMoreTokens()) {
-                String symbol = this.tokenizer.nextToken();
-                sb.append(symbol);
+    /**
+     * 現在位置のトークンが小文字で表現された {@code keyword} と大文字と小文字を区別せずに一致するか判定します。
+     *
+     * @param keyword 小文字で表現されたキーワード
+     * @return 現在位置のトークンが {@code keyword} と一致する場合は {@code true} 、それ以外は {@code false}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public boolean matches(@NonNull String keyword) {
+        return KeywordTable.matches(keyword, this.source, this.start, this.end);
+    }
 
-                if (closeSymbol.equals(symbol)) {
-                    break;
-                }
-            }
-        }
+    /**
+     * 最後に取得した空白以外のトークンが小文字で表現された {@code keyword} と大文字と小文字を区別せずに一致するか判定します。
+     *
+     * @param keyword 小文字で表現されたキーワード
+     * @return 最後に取得した空白以外のトークンが {@code keyword} と一致する場合は {@code true} 、それ以外は {@code false}
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public boolean matchesLastToken(@NonNull String keyword) {
+        return this.lastStart >= 0 && KeywordTable.matches(keyword, this.source, this.lastStart, this.lastEnd);
+    }
 
-        this.token = sb.toString();
-        this.lowercaseToken = token.toLowerCase(Locale.ROOT);
+    /**
+     * 最後に取得した空白以外のトークンの先頭文字を返却します。
+     *
+     * @return 最後に取得した空白以外のトークンの先頭文字。空白以外のトークンをまだ取得していない場合は {@code 0}
+     */
+    public char getLastTokenHead() {
+        return this.lastStart >= 0 ? this.source.charAt(this.lastStart) : 0;
+    }
+
+    /**
+     * 現在位置のトークンが空白であるか判定します。
+     *
+     * @return 現在位置のトークンが空白である場合は {@code true} 、それ以外は {@code false}
+     */
+    public boolean isWhitespace() {
+        return this.kind == DmlDispatchTable.KIND_WHITESPACE;
+    }
+
+    @Override
+    public String getToken() {
+        return this.source.subSequence(this.start, this.end).toString();
+    }
+
+    @Override
+    public String getLowercaseToken() {
+        return this.toLowercase(this.start, this.end, this.quoted);
+    }
+
+    @Override
+    public String getLastToken() {
+        return this.lastStart >= 0 ? this.toLowercase(this.lastStart, this.lastEnd, this.lastQuoted) : null;
+    }
 
-        if (!this.isWhitespace(this.lowercaseToken)) {
-            this.lastToken = this.lowercaseToken;
+    /**
+     * 引数として渡された範囲のトークンを小文字へ変換した文字列を返却します。
+     * <p>
+     * 引用符で囲まれたトークンは開始記号のみを返却します。
+     *
+     * @param start  トークンの開始位置
+     * @param end    トークンの終了位置
+     * @param quoted 引用符で囲まれたトークンであるかの可否
+     * @return 小文字へ変換したトークン
+     */
+    private String toLowercase(int start, int end, boolean quoted) {
+
+        if (quoted) {
+            return String.valueOf(this.source.charAt(start));
         }
 
-        return true;
+        return this.source.subSequence(start, end).toString().toLowerCase(Locale.ROOT);
     }
 }
\ No newline at end of file
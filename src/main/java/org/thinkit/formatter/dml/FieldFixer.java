@@ -14,8 +14,7 @@
 
 package org.thinkit.formatter.dml;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -23,6 +22,8 @@ import lombok.ToString;
 
 /**
  * フィールドを管理する処理や状態を定義したクラスです。
+ * <p>
+ * 退避した改行可否は {@code long} 型の配列を用いたビット列のスタックとして保持されるため、退避と復元の際にボクシングは発生しません。
  *
  * @author Kato Shinya
  * @since 1.0
@@ -33,9 +34,19 @@ import lombok.ToString;
 final class FieldFixer {
 
     /**
-     * 改行可否のデック
+     * 1要素あたりのビット数
      */
-    private Deque<Boolean> deque;
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    /**
+     * 退避した改行可否のビット列
+     */
+    private long[] stack;
+
+    /**
+     * 退避した改行可否の数
+     */
+    private int depth;
 
     /**
      * 改行可否
@@ -53,7 +64,8 @@ final class FieldFixer {
      * デフォルトコンストラクタ
      */
     private FieldFixer() {
-        this.deque = new ArrayDeque<>();
+        this.stack = new long[1];
+        this.depth = 0;
         this.newline = false;
         this.startLine = false;
     }
@@ -68,7 +80,7 @@ final class FieldFixer {
     }
 
     /**
-     * 現在の改行可否を {@code Deque} 構造の配列へ追加します。 現在の改行可否は {@link FieldFixer#push()}
+     * 現在の改行可否をスタックへ追加します。 現在の改行可否は {@link FieldFixer#push()}
      * メソッドの呼び出し時に {@code false} へ初期化されます。
      * <p>
      * {@link FieldFixer#push()} メソッドは自分自身のインスタンスを返却するため、メソッドチェーンの形式で後続処理を行うことができます。
@@ -76,21 +88,43 @@ final class FieldFixer {
      * @return 自分自身のインスタンス
      */
     public FieldFixer push() {
-        this.deque.push(this.newline);
+
+        if (this.depth == this.stack.length * BITS_PER_WORD) {
+            this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+        }
+
+        final int word = this.depth / BITS_PER_WORD;
+        final long mask = 1L << (this.depth % BITS_PER_WORD);
+
+        if (this.newline) {
+            this.stack[word] |= mask;
+        } else {
+            this.stack[word] &= ~mask;
+        }
+
+        this.depth++;
         this.newline = false;
         return this;
     }
 
     /**
-     * {@link FieldFixer#push()} メソッドで {@code Deque} 構造の配列へ追加された改行可否を最後尾から取り出します。
+     * {@link FieldFixer#push()} メソッドでスタックへ追加された改行可否を最後尾から取り出します。
      * {@link FieldFixer#pop()} メソッドで取り出された改行可否は現在の改行可否に上書きされます。
      * <p>
      * {@link FieldFixer#pop()} メソッドは自分自身のインスタンスを返却するため、メソッドチェーンの形式で後続処理を行うことができます。
      *
      * @return 自分自身のインスタンス
+     *
+     * @throws IllegalStateException 退避された改行可否が存在しない場合
      */
     public FieldFixer pop() {
-        this.newline = this.deque.pop();
+
+        if (this.depth == 0) {
+            throw new IllegalStateException("There is no pushed field level to restore");
+        }
+
+        this.depth--;
+        this.newline = (this.stack[this.depth / BITS_PER_WORD] & (1L << (this.depth % BITS_PER_WORD))) != 0;
         return this;
     }
 
@@ -145,4 +179,18 @@ final class FieldFixer {
         this.startLine = false;
         return this;
     }
+
+    /**
+     * スタックを空にし、改行可否と行頭可否を {@code false} へ初期化します。
+     * <p>
+     * {@link FieldFixer#reset()} メソッドは自分自身のインスタンスを返却するため、メソッドチェーンの形式で後続処理を行うことができます。
+     *
+     * @return 自分自身のインスタンス
+     */
+    public FieldFixer reset() {
+        this.depth = 0;
+        this.newline = false;
+        this.startLine = false;
+        return this;
+    }
 }
\ No newline at end of file
@@ -83,4 +83,16 @@ final class FunctionFixer {
     public boolean isInFunction() {
         return this.count > 0;
     }
+
+    /**
+     * 関数の数を {@code 0} へ初期化します。
+     * <p>
+     * {@link FunctionFixer#reset()} メソッドは自分自身のインスタンスを返却するため、メソッドチェーンの形式で後続処理を行うことができます。
+     *
+     * @return 自分自身のインスタンス
+     */
+    public FunctionFixer reset() {
+        this.count = 0;
+        return this;
+    }
 }
\ No newline at end of file
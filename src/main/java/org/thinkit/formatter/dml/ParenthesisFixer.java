@@ -14,14 +14,20 @@
 
 package org.thinkit.formatter.dml;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
+
+import org.thinkit.formatter.common.exception.FormattingException;
 
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 /**
  * 括弧を管理する処理や状態を定義したクラスです。
+ * <p>
+ * 退避した括弧数は {@code int} 型の配列を用いたスタックとして保持されるため、退避と復元の際にボクシングは発生しません。
+ * <p>
+ * 退避と復元によって変化する括弧数とは別に、クエリ全体で閉じられていない括弧の数を保持します。
+ * 開始括弧に対応しない終了括弧は {@link #decrement()} メソッドで検出されます。
  *
  * @author Kato Shinya
  * @since 1.0
@@ -32,21 +38,33 @@ import lombok.ToString;
 final class ParenthesisFixer {
 
     /**
-     * 括弧数のデック
+     * 退避した括弧数のスタック
+     */
+    private int[] stack;
+
+    /**
+     * 退避した括弧数の数
      */
-    private Deque<Integer> deque;
+    private int depth;
 
     /**
      * 括弧数
      */
     private int count;
 
+    /**
+     * クエリ全体で閉じられていない括弧の数
+     */
+    private int nesting;
+
     /**
      * デフォルトコンストラクタ
      */
     private ParenthesisFixer() {
-        this.deque = new ArrayDeque<>();
+        this.stack = new int[16];
+        this.depth = 0;
         this.count = 0;
+        this.nesting = 0;
     }
 
     /**
@@ -68,6 +86,7 @@ final class ParenthesisFixer {
      */
     public ParenthesisFixer increment() {
         this.count++;
+        this.nesting++;
         return this;
     }
 
@@ -78,8 +97,16 @@ final class ParenthesisFixer {
      * メソッドは自分自身のインスタンスを返却するため後続処理をメソッドチェーンの形式で実行することができます。
      *
      * @return 自分自身のインスタンス
+     *
+     * @throws FormattingException 対応する開始括弧が存在しない場合
      */
     public ParenthesisFixer decrement() {
+
+        if (this.nesting == 0) {
+            throw new FormattingException("Unbalanced closing parenthesis: there is no matching opening parenthesis");
+        }
+
+        this.nesting--;
         this.count--;
         return this;
     }
@@ -94,7 +121,16 @@ final class ParenthesisFixer {
     }
 
     /**
-     * 現在の括弧数を {@code Deque} 構造の配列へ追加します。 現在の括弧数は {@link ParenthesisFixer#push()}
+     * {@link #push()} メソッドで退避された括弧数が存在するか判定します。
+     *
+     * @return 退避された括弧数が存在する場合は {@code true} 、それ以外は {@code false}
+     */
+    public boolean isPushed() {
+        return this.depth > 0;
+    }
+
+    /**
+     * 現在の括弧数をスタックへ追加します。 現在の括弧数は {@link ParenthesisFixer#push()}
      * メソッドの呼び出し時に {@code 0} へ初期化されます。
      * <p>
      * {@link ParenthesisFixer#push()}
@@ -103,23 +139,48 @@ final class ParenthesisFixer {
      * @return 自分自身のインスタンス
      */
     public ParenthesisFixer push() {
-        this.deque.push(this.count);
+
+        if (this.depth == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+        }
+
+        this.stack[this.depth++] = this.count;
         this.count = 0;
         return this;
     }
 
     /**
-     * {@link ParenthesisFixer#push()} メソッドで {@code Deque}
-     * 構造の配列へ追加された括弧数を最後尾から取り出します。 {@link ParenthesisFixer#pop()}
+     * {@link ParenthesisFixer#push()} メソッドでスタックへ追加された括弧数を最後尾から取り出します。 {@link ParenthesisFixer#pop()}
      * メソッドで取り出された括弧数は現在の括弧数に上書きされます。
      * <p>
      * {@link ParenthesisFixer#pop()}
      * メソッドは自分自身のインスタンスを返却するため、メソッドチェーンの形式で後続処理を行うことができます。
      *
      * @return 自分自身のインスタンス
+     *
+     * @throws IllegalStateException 退避された括弧数が存在しない場合
      */
     public ParenthesisFixer pop() {
-        this.count = this.deque.pop();
+
+        if (this.depth == 0) {
+            throw new IllegalStateException("There is no pushed parenthesis level to restore");
+        }
+
+        this.count = this.stack[--this.depth];
+        return this;
+    }
+
+    /**
+     * スタックを空にし、開始括弧の数を {@code 0} へ初期化します。
+     * <p>
+     * {@link ParenthesisFixer#reset()} メソッドは自分自身のインスタンスを返却するため、メソッドチェーンの形式で後続処理を行うことができます。
+     *
+     * @return 自分自身のインスタンス
+     */
+    public ParenthesisFixer reset() {
+        this.depth = 0;
+        this.count = 0;
+        this.nesting = 0;
         return this;
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package org.thinkit.formatter.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * コネクションが生成したステートメントで実行されたクエリを {@link SqlLogger} へ渡すコネクションのプロキシです。
+ * <p>
+ * {@link Connection} インターフェースの全てのメソッドを実装する代わりに {@link Proxy} を使用し、ステートメントを生成するメソッドの戻り値のみを
+ * {@link LoggingStatement} でラップします。それ以外のメソッドはラップ対象のコネクションへそのまま委譲されます。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class LoggingConnection implements InvocationHandler {
+
+    /**
+     * ラップ対象のコネクション
+     */
+    private Connection connection;
+
+    /**
+     * クエリのロガー
+     */
+    @ToString.Exclude
+    private SqlLogger logger;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private LoggingConnection() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param connection ラップ対象のコネクション
+     * @param logger     クエリのロガー
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private LoggingConnection(@NonNull Connection connection, @NonNull SqlLogger logger) {
+        this.connection = connection;
+        this.logger = logger;
+    }
+
+    /**
+     * 引数として渡された {@code connection} をラップし、実行されたクエリを {@code logger} へ渡すコネクションを返却します。
+     *
+     * @param connection ラップ対象のコネクション
+     * @param logger     クエリのロガー
+     * @return ラップしたコネクション
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static Connection wrap(@NonNull Connection connection, @NonNull SqlLogger logger) {
+        return (Connection) Proxy.newProxyInstance(LoggingConnection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new LoggingConnection(connection, logger));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+        switch (method.getName()) {
+            case "prepareStatement":
+            case "prepareCall":
+                return LoggingStatement.wrap((Statement) invokeDelegate(this.connection, method, args),
+                        method.getReturnType(), (Connection) proxy, (String) args[0], this.logger);
+            case "createStatement":
+                return LoggingStatement.wrap((Statement) invokeDelegate(this.connection, method, args),
+                        Statement.class, (Connection) proxy, null, this.logger);
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return invokeDelegate(this.connection, method, args);
+        }
+    }
+
+    /**
+     * 引数として渡された {@code delegate} の {@code method} を呼び出します。呼び出したメソッドが送出した例外はそのまま再送出されます。
+     *
+     * @param delegate 委譲先のオブジェクト
+     * @param method   呼び出すメソッド
+     * @param args     メソッドの引数
+     * @return メソッドの戻り値
+     *
+     * @throws Throwable 呼び出したメソッドが例外を送出した場合
+     */
+    static Object invokeDelegate(Object delegate, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package org.thinkit.formatter.jdbc;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * 取得したコネクションで実行されたクエリを {@link SqlLogger} へ渡すデータソースのラッパークラスです。
+ * <p>
+ * {@link #getConnection()} メソッドが返却するコネクションは {@link LoggingConnection} でラップされ、
+ * {@code prepareStatement} 、 {@code prepareCall} 及び {@code createStatement} で生成したステートメントの {@code execute*}
+ * メソッドと {@code addBatch} メソッドに渡されたクエリを記録します。 JDBCの呼び出し元のスレッドで行われるのはキューへの格納のみで、
+ * 整形と出力は {@link SqlLogger} のワーカースレッドで行われます。
+ * <p>
+ * ラップ対象のデータソースはインターフェースのみに依存するため、データベースに接続しないスタブのドライバも使用できます。
+ *
+ * <pre>
+ * DataSource dataSource = LoggingDataSource.of(originalDataSource, SqlLogger.builder().withSink(log::debug).build());
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class LoggingDataSource implements DataSource {
+
+    /**
+     * ラップ対象のデータソース
+     */
+    private DataSource dataSource;
+
+    /**
+     * クエリのロガー
+     */
+    private SqlLogger logger;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private LoggingDataSource() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataSource ラップ対象のデータソース
+     * @param logger     クエリのロガー
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private LoggingDataSource(@NonNull DataSource dataSource, @NonNull SqlLogger logger) {
+        this.dataSource = dataSource;
+        this.logger = logger;
+    }
+
+    /**
+     * 引数として渡された {@code dataSource} をラップし、実行されたクエリを {@code logger} へ渡す {@link LoggingDataSource}
+     * クラスの新しいインスタンスを生成し返却します。
+     *
+     * @param dataSource ラップ対象のデータソース
+     * @param logger     クエリのロガー
+     * @return {@link LoggingDataSource} クラスの新しいインスタンス
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public static LoggingDataSource of(@NonNull DataSource dataSource, @NonNull SqlLogger logger) {
+        return new LoggingDataSource(dataSource, logger);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return LoggingConnection.wrap(this.dataSource.getConnection(), this.logger);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return LoggingConnection.wrap(this.dataSource.getConnection(username, password), this.logger);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return this.dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        this.dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        this.dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return this.dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return this.dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : this.dataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || this.dataSource.isWrapperFor(iface);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package org.thinkit.formatter.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * 実行されたクエリを {@link SqlLogger} へ渡すステートメントのプロキシです。
+ * <p>
+ * {@code execute*} メソッドと {@code addBatch} メソッドにクエリが渡された場合はそのクエリを、
+ * 準備済みのステートメントで引数なしの {@code execute*} メソッドが呼び出された場合は準備したクエリを、ラップ対象のステートメントへ委譲する前に記録します。
+ * {@code getConnection} メソッドはラップしたコネクションを返却します。
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+final class LoggingStatement implements InvocationHandler {
+
+    /**
+     * ラップ対象のステートメント
+     */
+    private Statement statement;
+
+    /**
+     * ステートメントを生成したコネクションのプロキシ
+     */
+    @ToString.Exclude
+    private Connection connection;
+
+    /**
+     * 準備したクエリ。準備済みのステートメントではない場合は {@code null}
+     */
+    private String preparedSql;
+
+    /**
+     * クエリのロガー
+     */
+    @ToString.Exclude
+    private SqlLogger logger;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private LoggingStatement() {
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param statement   ラップ対象のステートメント
+     * @param connection  ステートメントを生成したコネクションのプロキシ
+     * @param preparedSql 準備したクエリ
+     * @param logger      クエリのロガー
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    private LoggingStatement(@NonNull Statement statement, @NonNull Connection connection, String preparedSql,
+            @NonNull SqlLogger logger) {
+        this.statement = statement;
+        this.connection = connection;
+        this.preparedSql = preparedSql;
+        this.logger = logger;
+    }
+
+    /**
+     * 引数として渡された {@code statement} を {@code type} のプロキシでラップし返却します。
+     *
+     * @param statement   ラップ対象のステートメント
+     * @param type        プロキシが実装するステートメントのインターフェース
+     * @param connection  ステートメントを生成したコネクションのプロキシ
+     * @param preparedSql 準備したクエリ。準備済みのステートメントではない場合は {@code null}
+     * @param logger      クエリのロガー
+     * @return ラップしたステートメント
+     */
+    static Statement wrap(Statement statement, Class<?> type, Connection connection, String preparedSql,
+            SqlLogger logger) {
+
+        if (statement == null) {
+            return null;
+        }
+
+        return (Statement) Proxy.newProxyInstance(LoggingStatement.class.getClassLoader(), new Class<?>[] { type },
+                new LoggingStatement(statement, connection, preparedSql, logger));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+        final String name = method.getName();
+
+        if (name.startsWith("execute") || name.equals("addBatch")) {
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                this.logger.log((String) args[0]);
+            } else if (this.preparedSql != null && !name.equals("addBatch")) {
+                this.logger.log(this.preparedSql);
+            }
+        } else if (name.equals("getConnection")) {
+            return this.connection;
+        } else if (name.equals("equals")) {
+            return proxy == args[0];
+        } else if (name.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        }
+
+        return LoggingConnection.invokeDelegate(this.statement, method, args);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.jdbc;
+
+/**
+ * {@link SqlLogger} クラスが整形したクエリの出力先を定義したインターフェースです。
+ * <p>
+ * {@link #write(String)} メソッドは {@link SqlLogger} のワーカースレッドから呼び出されます。 複数のワーカースレッドを使用する場合は同時に呼び出されるため、
+ * 実装はスレッドセーフである必要があります。
+ *
+ * <pre>
+ * SqlLogSink sink = logger::debug;
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface SqlLogSink {
+
+    /**
+     * 整形したクエリを出力します。整形に失敗したクエリは整形前の状態で渡されます。
+     *
+     * @param formattedSql 整形したクエリ
+     */
+    void write(String formattedSql);
+}
\ No newline at end of file
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.thinkit.formatter.jdbc;
+
+import java.io.Closeable;
+
+import org.thinkit.common.Precondition;
+import org.thinkit.common.exception.LogicException;
+import org.thinkit.formatter.AsyncSqlFormatter;
+import org.thinkit.formatter.AsyncSqlFormatter.OverflowPolicy;
+import org.thinkit.formatter.CachingSqlFormatter;
+import org.thinkit.formatter.common.Formatter;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * JDBCで実行されたクエリを呼び出し元のスレッドで整形せず、ワーカースレッドで整形して {@link SqlLogSink} へ出力するロガークラスです。
+ * <p>
+ * {@link #log(String)} メソッドはクエリを {@link AsyncSqlFormatter} のキューへ格納するのみで直ちに返却されます。 整形と {@link SqlLogSink}
+ * への出力はどちらもワーカースレッドで行われ、キューが満杯の場合は既定でクエリを破棄するため、呼び出し元のスレッドで整形や出力が行われることはありません。
+ * 既定のフォーマッタは同じクエリの整形結果を再利用する {@link CachingSqlFormatter} です。
+ * <p>
+ * {@link LoggingDataSource} クラスと組み合わせて使用します。 {@link #close()} メソッドはキューに残っているクエリを出力した後にワーカースレッドを終了します。
+ *
+ * <pre>
+ * SqlLogger logger = SqlLogger.builder().withSink(log::debug).build();
+ * DataSource dataSource = LoggingDataSource.of(originalDataSource, logger);
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.0
+ * @version 1.0
+ */
+@ToString
+public final class SqlLogger implements Closeable {
+
+    /**
+     * 非同期のフォーマッタ
+     */
+    private AsyncSqlFormatter formatter;
+
+    /**
+     * デフォルトコンストラクタ
+     */
+    private SqlLogger() {
+    }
+
+    /**
+     * {@link SqlLogger} クラスのインスタンスを生成する {@link Builder} クラスの新しいインスタンスを生成し返却します。
+     *
+     * @return {@link Builder} クラスの新しいインスタンス
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * {@link SqlLogger} クラスのインスタンスを生成する処理を定義したビルダークラスです。
+     *
+     * @author Kato Shinya
+     * @since 1.0
+     * @version 1.0
+     */
+    public static class Builder {
+
+        /**
+         * 整形したクエリの出力先
+         */
+        private SqlLogSink sink;
+
+        /**
+         * 整形処理を委譲するフォーマッタ
+         */
+        private Formatter formatter;
+
+        /**
+         * キューの容量
+         */
+        private int queueCapacity = 1024;
+
+        /**
+         * ワーカースレッド数
+         */
+        private int workers = 1;
+
+        /**
+         * キューが満杯の場合に空きを待機するか否か
+         */
+        private boolean blockingWhenFull;
+
+        /**
+         * デフォルトコンストラクタ
+         */
+        private Builder() {
+        }
+
+        /**
+         * 整形したクエリの出力先を設定します。
+         *
+         * @param sink 整形したクエリの出力先
+         * @return 自分自身のインスタンス
+         *
+         * @exception NullPointerException 引数として {@code null} が渡された場合
+         */
+        public Builder withSink(@NonNull SqlLogSink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * 整形処理を委譲するフォーマッタを設定します。
+         * <p>
+         * 設定されない場合は既定の設定の {@link CachingSqlFormatter} クラスが使用されます。
+         *
+         * @param formatter 整形処理を委譲するフォーマッタ
+         * @return 自分自身のインスタンス
+         *
+         * @exception NullPointerException 引数として {@code null} が渡された場合
+         */
+        public Builder withFormatter(@NonNull Formatter formatter) {
+            this.formatter = formatter;
+            return this;
+        }
+
+        /**
+         * 整形を待機するクエリを格納するキューの容量を設定します。
+         *
+         * @param queueCapacity キューの容量
+         * @return 自分自身のインスタンス
+         *
+         * @see AsyncSqlFormatter.Builder#withQueueCapacity(int)
+         */
+        public Builder withQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * クエリを整形するワーカースレッド数を設定します。
+         *
+         * @param workers ワーカースレッド数
+         * @return 自分自身のインスタンス
+         *
+         * @see AsyncSqlFormatter.Builder#withWorkers(int)
+         */
+        public Builder withWorkers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * キューが満杯の場合に空きを待機するか否かを設定します。
+         * <p>
+         * 既定値は {@code false} で、キューが満杯の場合はクエリを破棄します。 {@code true} の場合は全てのクエリが出力されますが、
+         * ワーカースレッドの処理が追いつかない間はJDBCの呼び出し元のスレッドが待機します。
+         *
+         * @param blockingWhenFull キューが満杯の場合に空きを待機する場合は {@code true} 、それ以外は {@code false}
+         * @return 自分自身のインスタンス
+         */
+        public Builder withBlockingWhenFull(boolean blockingWhenFull) {
+            this.blockingWhenFull = blockingWhenFull;
+            return this;
+        }
+
+        /**
+         * 設定された値を基に {@link SqlLogger} クラスの新しいインスタンスを生成し、ワーカースレッドを開始した上で返却します。
+         *
+         * @return {@link SqlLogger} クラスの新しいインスタンス
+         *
+         * @throws LogicException {@link #withSink(SqlLogSink)} メソッドが呼び出されていない場合
+         */
+        public SqlLogger build() {
+            Precondition.requireNonNull(this.sink);
+
+            final SqlLogger logger = new SqlLogger();
+            logger.formatter = AsyncSqlFormatter.builder()
+                    .withFormatter(writingTo(this.formatter != null ? this.formatter : CachingSqlFormatter.builder().build(),
+                            this.sink))
+                    .withQueueCapacity(this.queueCapacity).withWorkers(this.workers)
+                    .withOverflowPolicy(this.blockingWhenFull ? OverflowPolicy.BLOCK : OverflowPolicy.DROP).build();
+
+            return logger;
+        }
+    }
+
+    /**
+     * 引数として渡された {@code sql} の整形と出力をワーカースレッドへ依頼します。
+     * <p>
+     * 整形に失敗したクエリは整形前の状態で出力されます。キューが満杯だったために破棄されたクエリは出力されません。
+     *
+     * @param sql 実行されたクエリ
+     *
+     * @exception NullPointerException 引数として {@code null} が渡された場合
+     */
+    public void log(@NonNull String sql) {
+        this.formatter.formatAsync(sql);
+    }
+
+    /**
+     * 引数として渡された {@code formatter} で整形したクエリを {@code sink} へ出力するフォーマッタを返却します。
+     * <p>
+     * 出力を {@link AsyncSqlFormatter} が返却する {@link java.util.concurrent.CompletableFuture} の後続処理として登録すると、
+     * 登録前に整形が完了した場合に呼び出し元のスレッドで出力されるため、整形と同じワーカースレッドの処理の中で出力します。
+     *
+     * @param formatter 整形処理を委譲するフォーマッタ
+     * @param sink      整形したクエリの出力先
+     * @return 整形したクエリを出力するフォーマッタ
+     */
+    private static Formatter writingTo(Formatter formatter, SqlLogSink sink) {
+        return sql -> {
+            String formattedSql;
+
+            try {
+                formattedSql = formatter.format(sql);
+            } catch (RuntimeException e) {
+                formattedSql = sql;
+            }
+
+            sink.write(formattedSql);
+            return formattedSql;
+        };
+    }
+
+    /**
+     * 整形と出力を待機しているクエリ数を返却します。
+     *
+     * @return キューに格納されているクエリ数
+     */
+    public int getQueueDepth() {
+        return this.formatter.getQueueDepth();
+    }
+
+    /**
+     * キューが満杯、または停止後だったために破棄したクエリ数を返却します。
+     *
+     * @return 破棄したクエリ数
+     */
+    public long getDroppedCount() {
+        return this.formatter.getDroppedCount();
+    }
+
+    /**
+     * 新しいクエリの受け付けを停止し、キューに残っているクエリを出力した後にワーカースレッドを終了します。
+     */
+    @Override
+    public void close() {
+        this.formatter.close();
+    }
+}
\ No newline at end of file